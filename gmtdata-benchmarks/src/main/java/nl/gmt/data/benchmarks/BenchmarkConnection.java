@@ -0,0 +1,44 @@
+package nl.gmt.data.benchmarks;
+
+import nl.gmt.data.DataException;
+import nl.gmt.data.DbConfiguration;
+import nl.gmt.data.DbConnection;
+import nl.gmt.data.DbType;
+import nl.gmt.data.benchmarks.types.EntitySchema;
+import nl.gmt.data.schema.Schema;
+
+import java.io.File;
+import java.io.IOException;
+
+public class BenchmarkConnection extends DbConnection<EntitySchema> {
+    public static BenchmarkConnection open() throws Exception {
+        // Every benchmark gets a fresh database file so results don't depend on earlier runs.
+
+        File file = File.createTempFile("gmtdata-benchmarks", ".db");
+        file.deleteOnExit();
+
+        DbConfiguration configuration = new DbConfiguration();
+
+        configuration.setConnectionString("jdbc:sqlite:" + file.getAbsolutePath());
+        configuration.setType(DbType.SQLITE);
+
+        BenchmarkConnection db = new BenchmarkConnection(configuration);
+
+        db.migrateDatabase();
+
+        return db;
+    }
+
+    public BenchmarkConnection(DbConfiguration configuration) throws DataException {
+        super(
+            configuration,
+            "Database.schema",
+            null
+        );
+    }
+
+    @Override
+    protected EntitySchema createEntitySchema(Schema schema) throws DataException {
+        return new EntitySchema(schema);
+    }
+}
@@ -0,0 +1,40 @@
+package nl.gmt.data.benchmarks;
+
+import nl.gmt.data.DbContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DbContextBenchmark {
+    private BenchmarkConnection db;
+
+    @Setup
+    public void setup() throws Exception {
+        db = BenchmarkConnection.open();
+    }
+
+    @TearDown
+    public void tearDown() {
+        db.close();
+    }
+
+    @Benchmark
+    public void openClose() {
+        try (DbContext ctx = db.openContext()) {
+            ctx.commit();
+        }
+    }
+
+    @Benchmark
+    public void openAbort() {
+        try (DbContext ctx = db.openContext()) {
+            ctx.abort();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package nl.gmt.data.benchmarks;
+
+import nl.gmt.data.EntityField;
+import nl.gmt.data.EntityType;
+import nl.gmt.data.benchmarks.model.Gender;
+import nl.gmt.data.benchmarks.model.Relation;
+import nl.gmt.data.benchmarks.types.RelationType;
+import nl.gmt.data.schema.Schema;
+import nl.gmt.data.schema.SchemaClass;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EntityFieldAccessorBenchmark {
+    private BenchmarkConnection db;
+    private Relation relation;
+    private EntityField field;
+    private EntityField runtimeField;
+    private Schema schema;
+    private SchemaClass schemaClass;
+    private Method getter;
+    private Method setter;
+    private MethodHandle getterHandle;
+    private MethodHandle setterHandle;
+
+    @Setup
+    public void setup() throws Exception {
+        db = BenchmarkConnection.open();
+
+        relation = new Relation();
+        relation.setName("Relation");
+        relation.setGender(Gender.MALE);
+        field = db.getEntitySchema().getEntityType(Relation.class).getField("name");
+
+        // A plain entity type doesn't have the accessors generated with the model, so its
+        // accessors are built at runtime like they are for hand-written models.
+
+        schema = db.getEntitySchema().getSchema();
+        schemaClass = field.getEntityType().getSchemaClass();
+        runtimeField = new EntityType(schema, schemaClass, Relation.class).getField("name");
+
+        getter = Relation.class.getMethod("getName");
+        setter = Relation.class.getMethod("setName", String.class);
+
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+        getterHandle = lookup.findVirtual(Relation.class, "getName", MethodType.methodType(String.class));
+        setterHandle = lookup.findVirtual(Relation.class, "setName", MethodType.methodType(void.class, String.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        db.close();
+    }
+
+    @Benchmark
+    public Object accessorGetValue() {
+        return field.getValue(relation);
+    }
+
+    @Benchmark
+    public void accessorSetValue() {
+        field.setValue(relation, "Relation");
+    }
+
+    @Benchmark
+    public Object runtimeAccessorGetValue() {
+        return runtimeField.getValue(relation);
+    }
+
+    @Benchmark
+    public void runtimeAccessorSetValue() {
+        runtimeField.setValue(relation, "Relation");
+    }
+
+    @Benchmark
+    public EntityType createEntityType() {
+        return new RelationType(schema, schemaClass);
+    }
+
+    @Benchmark
+    public EntityType createRuntimeEntityType() {
+        return new EntityType(schema, schemaClass, Relation.class);
+    }
+
+    @Benchmark
+    public Object reflectionGetValue() throws Exception {
+        return getter.invoke(relation);
+    }
+
+    @Benchmark
+    public void reflectionSetValue() throws Exception {
+        setter.invoke(relation, "Relation");
+    }
+
+    @Benchmark
+    public Object methodHandleGetValue() throws Throwable {
+        return (String)getterHandle.invokeExact(relation);
+    }
+
+    @Benchmark
+    public void methodHandleSetValue() throws Throwable {
+        setterHandle.invokeExact(relation, "Relation");
+    }
+}
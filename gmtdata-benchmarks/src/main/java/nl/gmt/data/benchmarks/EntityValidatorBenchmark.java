@@ -0,0 +1,109 @@
+package nl.gmt.data.benchmarks;
+
+import nl.gmt.data.DbContext;
+import nl.gmt.data.EntityValidator;
+import nl.gmt.data.EntityValidatorMode;
+import nl.gmt.data.benchmarks.model.Address;
+import nl.gmt.data.benchmarks.model.Gender;
+import nl.gmt.data.benchmarks.model.Relation;
+import org.hibernate.criterion.Restrictions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EntityValidatorBenchmark {
+    private static final int RELATION_COUNT = 1000;
+
+    private BenchmarkConnection db;
+    private Relation relation;
+    private Address address;
+
+    @Setup
+    public void setup() throws Exception {
+        db = BenchmarkConnection.open();
+
+        try (DbContext ctx = db.openContext()) {
+            for (int i = 0; i < RELATION_COUNT; i++) {
+                Relation relation = createRelation("Relation" + i);
+
+                ctx.saveOrUpdate(relation);
+                ctx.saveOrUpdate(createAddress(i, relation));
+            }
+
+            ctx.commit();
+        }
+
+        // The validated entities conflict with the data above, so every unique index is checked
+        // against the database.
+
+        relation = createRelation("Relation" + (RELATION_COUNT / 2));
+
+        try (DbContext ctx = db.openContext()) {
+            address = createAddress(
+                RELATION_COUNT / 2,
+                (Relation)ctx.createCriteria(Relation.class)
+                    .add(Restrictions.eq("name", relation.getName()))
+                    .uniqueResult()
+            );
+
+            ctx.commit();
+        }
+    }
+
+    private static Relation createRelation(String name) {
+        Relation relation = new Relation();
+
+        relation.setName(name);
+        relation.setGender(Gender.MALE);
+
+        return relation;
+    }
+
+    private static Address createAddress(int houseNumber, Relation relation) {
+        Address address = new Address();
+
+        address.setStreet("Street");
+        address.setHouseNumber(houseNumber);
+        address.setCity("City");
+        address.setRelation(relation);
+
+        return address;
+    }
+
+    @TearDown
+    public void tearDown() {
+        db.close();
+    }
+
+    @Benchmark
+    public Object validateSingleUniqueIndex() {
+        try (DbContext ctx = db.openContext()) {
+            EntityValidator validator = new EntityValidator(ctx);
+
+            validator.validate(relation, EntityValidatorMode.CREATE);
+
+            ctx.commit();
+
+            return validator.getMessages();
+        }
+    }
+
+    @Benchmark
+    public Object validateCompositeUniqueIndex() {
+        try (DbContext ctx = db.openContext()) {
+            EntityValidator validator = new EntityValidator(ctx);
+
+            validator.validate(address, EntityValidatorMode.CREATE);
+
+            ctx.commit();
+
+            return validator.getMessages();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package nl.gmt.data.benchmarks;
+
+import nl.gmt.data.drivers.SQLiteDatabaseDriver;
+import nl.gmt.data.migrate.SqlStatement;
+import nl.gmt.data.schema.Schema;
+import nl.gmt.data.schema.SchemaCallback;
+import nl.gmt.data.schema.SchemaParserExecutor;
+import nl.gmt.data.schema.SchemaRules;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SchemaParserBenchmark {
+    private static final String SCHEMA_NAME = "Large.schema";
+
+    @Param({"50", "500"})
+    public int classCount;
+
+    private byte[] schema;
+    private SchemaRules rules;
+
+    @Setup
+    public void setup() throws Exception {
+        schema = buildSchema(classCount).getBytes(Charset.forName("UTF-8"));
+        rules = new SQLiteDatabaseDriver().createSchemaRules();
+    }
+
+    private static String buildSchema(int classCount) {
+        // Every class gets a number of properties of different types, a unique and a composite
+        // index and a reference to the previous class.
+
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n");
+        sb.append("<schema xmlns=\"http://schemas.gmt.nl/gmtdata/2015/02/hibernate-schema\" namespace=\"nl.gmt.data.benchmarks.large\">\n");
+        sb.append("  <settings>\n");
+        sb.append("    <idProperty name=\"Id\" type=\"guid\" foreignPostfix=\"Id\">\n");
+        sb.append("      <generator name=\"uuid\" strategy=\"uuid2\"/>\n");
+        sb.append("    </idProperty>\n");
+        sb.append("  </settings>\n");
+        sb.append("  <dataType name=\"string-long\" type=\"string\" length=\"200\"/>\n");
+
+        for (int i = 0; i < classCount; i++) {
+            sb.append("  <class name=\"Class").append(i).append("\">\n");
+            sb.append("    <property name=\"Name\" type=\"string-long\" indexed=\"unique\"/>\n");
+            sb.append("    <property name=\"Description\" type=\"text\" nullable=\"true\"/>\n");
+            sb.append("    <property name=\"Count\" type=\"int\"/>\n");
+            sb.append("    <property name=\"Amount\" type=\"decimal\" length=\"10\" positions=\"2\" nullable=\"true\"/>\n");
+            sb.append("    <property name=\"Created\" type=\"datetime\"/>\n");
+            sb.append("    <property name=\"Active\" type=\"bool\"/>\n");
+
+            if (i > 0) {
+                sb.append("    <foreignParent name=\"Parent\" class=\"Class").append(i - 1).append("\" nullable=\"true\"/>\n");
+            }
+
+            sb.append("    <index properties=\"Count,Created\"/>\n");
+            sb.append("  </class>\n");
+        }
+
+        sb.append("</schema>\n");
+
+        return sb.toString();
+    }
+
+    @Benchmark
+    public Schema parse() throws Exception {
+        SchemaParserExecutor parserExecutor = new SchemaParserExecutor(new SchemaCallback() {
+            @Override
+            public InputStream loadFile(String name) throws Exception {
+                if (SCHEMA_NAME.equals(name)) {
+                    return new ByteArrayInputStream(schema);
+                }
+
+                throw new FileNotFoundException(name);
+            }
+
+            @Override
+            public void serializeSql(Iterable<SqlStatement> statements) {
+            }
+        });
+
+        return parserExecutor.parse(SCHEMA_NAME, rules);
+    }
+}
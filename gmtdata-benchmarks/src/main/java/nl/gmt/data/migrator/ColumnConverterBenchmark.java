@@ -0,0 +1,125 @@
+package nl.gmt.data.migrator;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.sql.*;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// The transferer only supports MySQL, Postgres and SQL Server. This benchmarks the part of the
+// transfer loop that doesn't depend on the target database: reading the source rows.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ColumnConverterBenchmark {
+    private static final int ROW_COUNT = 10000;
+
+    private Connection connection;
+    private ColumnConverter[] converters;
+
+    @Setup
+    public void setup() throws Exception {
+        File file = File.createTempFile("gmtdata-benchmarks", ".db");
+        file.deleteOnExit();
+
+        Class.forName("org.sqlite.JDBC");
+
+        connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+        connection.setAutoCommit(false);
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE Row (Id INTEGER PRIMARY KEY, Name TEXT, Amount INTEGER, Reference BLOB)");
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement("INSERT INTO Row (Id, Name, Amount, Reference) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < ROW_COUNT; i++) {
+                UUID reference = UUID.randomUUID();
+
+                stmt.setInt(1, i + 1);
+                stmt.setString(2, "Row " + i);
+                stmt.setLong(3, i * 1000L);
+                stmt.setBytes(4, ByteBuffer.allocate(16)
+                    .putLong(reference.getMostSignificantBits())
+                    .putLong(reference.getLeastSignificantBits())
+                    .array()
+                );
+                stmt.addBatch();
+            }
+
+            stmt.executeBatch();
+        }
+
+        connection.commit();
+
+        converters = new ColumnConverter[]{
+            ColumnConverter.INTEGER,
+            ColumnConverter.STRING,
+            ColumnConverter.LONG,
+            ColumnConverter.BINARY_UUID
+        };
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROW_COUNT)
+    public void readObjects(Blackhole blackhole) throws SQLException {
+        // The way rows were read before the converters: getObject for every column and a UUID
+        // built through scratch arrays.
+
+        try (
+            Statement stmt = connection.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT Id, Name, Amount, Reference FROM Row")
+        ) {
+            while (rs.next()) {
+                blackhole.consume(rs.getObject(1));
+                blackhole.consume(rs.getObject(2));
+                blackhole.consume(rs.getObject(3));
+                blackhole.consume(bytesToUuid((byte[])rs.getObject(4)));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROW_COUNT)
+    public void readConverters(Blackhole blackhole) throws SQLException {
+        try (
+            Statement stmt = connection.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT Id, Name, Amount, Reference FROM Row")
+        ) {
+            while (rs.next()) {
+                for (int i = 0; i < converters.length; i++) {
+                    blackhole.consume(converters[i].read(rs, i + 1));
+                }
+            }
+        }
+    }
+
+    private static UUID bytesToUuid(byte[] value) {
+        byte[] msb = new byte[8];
+        byte[] lsb = new byte[8];
+        System.arraycopy(value, 0, msb, 0, 8);
+        System.arraycopy(value, 8, lsb, 0, 8);
+        return new UUID(asLong(msb), asLong(lsb));
+    }
+
+    private static long asLong(byte[] bytes) {
+        long value = 0L;
+
+        for (int i = 0; i < 8; i++) {
+            value = value << 8 | (long)(bytes[i] & 255);
+        }
+
+        return value;
+    }
+}
@@ -1,9 +1,11 @@
 package nl.gmt.gmtdata.maven;
 
+import nl.gmt.data.RepositoryRegistry;
 import nl.gmt.data.hibernate.generation.CodeGenerator;
 import nl.gmt.data.hibernate.generation.GeneratorWriter;
 import nl.gmt.data.migrate.SqlStatement;
 import nl.gmt.data.schema.Schema;
+import nl.gmt.data.schema.SchemaArtifact;
 import nl.gmt.data.schema.SchemaCallback;
 import nl.gmt.data.schema.SchemaException;
 import nl.gmt.data.schema.SchemaParserExecutor;
@@ -16,6 +18,8 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 
 import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
 
 @SuppressWarnings("UnusedDeclaration")
 @Mojo(name = "hibernate-model", defaultPhase = LifecyclePhase.GENERATE_SOURCES)
@@ -35,12 +39,21 @@ public class GenerateMojo extends AbstractMojo {
     @Parameter(defaultValue = "${project.build.sourceDirectory}", property = "repositoriesOutputDir", required = false)
     private File repositoriesOutputDirectory;
 
+    @Parameter(defaultValue = "${project.build.outputDirectory}", property = "repositoryRegistryOutputDir", required = false)
+    private File repositoryRegistryOutputDirectory;
+
     @Parameter(property = "packageName", required = false)
     private String packageName;
 
     @Parameter(property = "generateSchema", required = false, defaultValue = "true")
     private boolean generateSchema;
 
+    @Parameter(property = "generateSchemaArtifact", required = false, defaultValue = "true")
+    private boolean generateSchemaArtifact;
+
+    @Parameter(defaultValue = "${project.build.outputDirectory}", property = "schemaArtifactOutputDir", required = false)
+    private File schemaArtifactOutputDirectory;
+
     @SuppressWarnings("ResultOfMethodCallIgnored")
     public void execute() throws MojoExecutionException {
         // Verify the parameters.
@@ -108,8 +121,55 @@ public class GenerateMojo extends AbstractMojo {
                     }
                 }
             });
+
+            // Register the generated repository registry so RepositoryService.load() finds it.
+            // Multiple executions can share the services file, so the registry is appended
+            // to the classes that are already registered.
+
+            String registryClassName = generator.getRepositoryRegistryClassName();
+
+            if (registryClassName != null) {
+                File fileName = new File(repositoryRegistryOutputDirectory, "META-INF/services/" + RepositoryRegistry.class.getName());
+
+                List<String> registered = new ArrayList<>();
+
+                if (fileName.exists()) {
+                    try (InputStream is = new FileInputStream(fileName)) {
+                        for (String line : IOUtils.readLines(is, "UTF-8")) {
+                            line = line.trim();
+                            if (line.length() > 0) {
+                                registered.add(line);
+                            }
+                        }
+                    }
+                }
+
+                if (!registered.contains(registryClassName)) {
+                    registered.add(registryClassName);
+
+                    fileName.getParentFile().mkdirs();
+
+                    try (OutputStream os = new FileOutputStream(fileName)) {
+                        IOUtils.writeLines(registered, "\n", os, "UTF-8");
+                    }
+                }
+            }
+
+            // Write the parsed schema so it can be loaded without parsing at runtime.
+
+            if (generateSchemaArtifact) {
+                File fileName = new File(schemaArtifactOutputDirectory, this.schema + SchemaArtifact.EXTENSION);
+
+                fileName.getParentFile().mkdirs();
+
+                try (OutputStream os = new BufferedOutputStream(new FileOutputStream(fileName))) {
+                    parserExecutor.createArtifact(schema).write(os);
+                }
+            }
         } catch (SchemaException e) {
             throw new MojoExecutionException("Cannot generate code", e);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Cannot write generated files", e);
         }
     }
 }
@@ -15,10 +15,50 @@ public class Arguments {
     @Option(name = "-s", aliases = {"--schema"}, required = true, usage = "Path to database schema")
     private String schema;
 
+    @Option(name = "-j", aliases = {"--threads"}, usage = "Number of parts transferred in parallel")
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Option(name = "-p", aliases = {"--partition-size"}, usage = "Approximate number of rows per part; 0 to transfer tables as a whole")
+    private int partitionSize = 500000;
+
+    @Option(name = "-b", aliases = {"--batch-size"}, usage = "Number of rows sent to the target database in one batch")
+    private int batchSize = 1000;
+
+    @Option(name = "-c", aliases = {"--commit-every"}, usage = "Number of rows after which the target transaction is committed")
+    private int commitEvery = 10000;
+
+    @Option(name = "--page-size", usage = "Number of rows read from the source database per query; 0 to read a part in one query")
+    private int pageSize = 50000;
+
+    @Option(name = "--checkpoint", usage = "File in which the progress of the transfer is recorded")
+    private String checkpoint = "migrator.checkpoint";
+
+    @Option(name = "--resume", usage = "Resume the transfer recorded in the checkpoint file")
+    private boolean resume;
+
+    @Option(name = "--bulk", usage = "Use the native bulk loader of the destination database")
+    private boolean bulk;
+
     public Arguments(String... args) throws CmdLineException {
         CmdLineParser parser = new CmdLineParser(this, ParserProperties.defaults().withUsageWidth(80));
         try {
             parser.parseArgument(args);
+
+            if (threads < 1) {
+                throw new CmdLineException(parser, "Threads must be at least 1", null);
+            }
+            if (partitionSize < 0) {
+                throw new CmdLineException(parser, "Partition size cannot be negative", null);
+            }
+            if (batchSize < 1) {
+                throw new CmdLineException(parser, "Batch size must be at least 1", null);
+            }
+            if (commitEvery < 1) {
+                throw new CmdLineException(parser, "Commit interval must be at least 1", null);
+            }
+            if (pageSize < 0) {
+                throw new CmdLineException(parser, "Page size cannot be negative", null);
+            }
         } catch (CmdLineException e) {
             System.err.println(e.getMessage());
             parser.printUsage(System.err);
@@ -38,4 +78,36 @@ public class Arguments {
     public String getSchema() {
         return schema;
     }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getPartitionSize() {
+        return partitionSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getCommitEvery() {
+        return commitEvery;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public String getCheckpoint() {
+        return checkpoint;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    public boolean isBulk() {
+        return bulk;
+    }
 }
@@ -0,0 +1,15 @@
+package nl.gmt.data.migrator;
+
+import java.sql.SQLException;
+
+abstract class BulkSink implements AutoCloseable {
+    public abstract void addValue(Object value) throws SQLException;
+
+    public abstract void endRow() throws SQLException;
+
+    public abstract void flush() throws SQLException;
+
+    @Override
+    public void close() throws SQLException {
+    }
+}
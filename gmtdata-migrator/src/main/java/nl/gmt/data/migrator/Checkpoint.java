@@ -0,0 +1,207 @@
+package nl.gmt.data.migrator;
+
+import nl.gmt.data.schema.Schema;
+import nl.gmt.data.schema.SchemaClass;
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.lang.Validate;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+class Checkpoint {
+    public static Checkpoint create(File file, List<TransferPart> parts) throws IOException {
+        Validate.notNull(file, "file");
+        Validate.notNull(parts, "parts");
+
+        Checkpoint checkpoint = new Checkpoint(file);
+
+        for (TransferPart part : parts) {
+            checkpoint.states.put(part, new State());
+        }
+
+        checkpoint.save();
+
+        return checkpoint;
+    }
+
+    public static Checkpoint load(File file, Schema schema) throws IOException {
+        Validate.notNull(file, "file");
+        Validate.notNull(schema, "schema");
+
+        Properties properties = new Properties();
+
+        try (InputStream is = new FileInputStream(file)) {
+            properties.load(is);
+        }
+
+        Checkpoint checkpoint = new Checkpoint(file);
+
+        int partCount = Integer.parseInt(properties.getProperty("parts"));
+
+        for (int i = 0; i < partCount; i++) {
+            String prefix = "part." + i + ".";
+
+            SchemaClass klass = schema.getClasses().get(properties.getProperty(prefix + "class"));
+            if (klass == null) {
+                throw new IOException(String.format("Class of part %d is not part of the schema", i));
+            }
+
+            String lowerBound = properties.getProperty(prefix + "lower");
+            String upperBound = properties.getProperty(prefix + "upper");
+
+            TransferPart part;
+            if (lowerBound != null) {
+                part = new TransferPart(klass, Long.parseLong(lowerBound), Long.parseLong(upperBound));
+            } else {
+                part = new TransferPart(klass);
+            }
+
+            State state = new State();
+
+            state.lastKey = parseKey(properties.getProperty(prefix + "key"));
+            state.rows = Integer.parseInt(properties.getProperty(prefix + "rows"));
+            state.done = Boolean.parseBoolean(properties.getProperty(prefix + "done"));
+
+            checkpoint.states.put(part, state);
+        }
+
+        return checkpoint;
+    }
+
+    private final File file;
+    private final Map<TransferPart, State> states = new LinkedHashMap<>();
+
+    private Checkpoint(File file) {
+        this.file = file;
+    }
+
+    public List<TransferPart> getParts() {
+        return new ArrayList<>(states.keySet());
+    }
+
+    public synchronized boolean isDone(TransferPart part) {
+        return getState(part).done;
+    }
+
+    public synchronized Object getLastKey(TransferPart part) {
+        return getState(part).lastKey;
+    }
+
+    public synchronized int getRows(TransferPart part) {
+        return getState(part).rows;
+    }
+
+    public synchronized void update(TransferPart part, Object lastKey, int rows, boolean done) throws IOException {
+        State state = getState(part);
+
+        state.lastKey = lastKey;
+        state.rows = rows;
+        state.done = done;
+
+        save();
+    }
+
+    private State getState(TransferPart part) {
+        State state = states.get(part);
+
+        Validate.notNull(state, "Part is not part of the checkpoint");
+
+        return state;
+    }
+
+    private void save() throws IOException {
+        Properties properties = new Properties();
+
+        properties.setProperty("parts", Integer.toString(states.size()));
+
+        int index = 0;
+
+        for (Map.Entry<TransferPart, State> entry : states.entrySet()) {
+            String prefix = "part." + index++ + ".";
+            TransferPart part = entry.getKey();
+            State state = entry.getValue();
+
+            properties.setProperty(prefix + "class", part.getKlass().getFullName());
+            if (part.isPartitioned()) {
+                properties.setProperty(prefix + "lower", Long.toString(part.getLowerBound()));
+                properties.setProperty(prefix + "upper", Long.toString(part.getUpperBound()));
+            }
+            if (state.lastKey != null) {
+                properties.setProperty(prefix + "key", printKey(state.lastKey));
+            }
+            properties.setProperty(prefix + "rows", Integer.toString(state.rows));
+            properties.setProperty(prefix + "done", Boolean.toString(state.done));
+        }
+
+        // Write to a temporary file first so a crash never leaves a truncated checkpoint behind.
+
+        File tempFile = new File(file.getPath() + ".tmp");
+
+        try (OutputStream os = new FileOutputStream(tempFile)) {
+            properties.store(os, "Migrator checkpoint");
+        }
+
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Keys are stored the way the source loader read them, so they can be bound again as is.
+
+    private static String printKey(Object key) {
+        if (key instanceof Integer) {
+            return "int:" + key;
+        }
+        if (key instanceof Short) {
+            return "short:" + key;
+        }
+        if (key instanceof Long) {
+            return "long:" + key;
+        }
+        if (key instanceof byte[]) {
+            return "bytes:" + Hex.encodeHexString((byte[])key);
+        }
+        if (key instanceof UUID) {
+            return "uuid:" + key;
+        }
+        if (key instanceof String) {
+            return "string:" + key;
+        }
+        throw new IllegalArgumentException(String.format("Cannot store key of type '%s'", key.getClass().getName()));
+    }
+
+    private static Object parseKey(String value) throws IOException {
+        if (value == null) {
+            return null;
+        }
+
+        int pos = value.indexOf(':');
+        if (pos == -1) {
+            throw new IOException("Invalid key in checkpoint");
+        }
+
+        String data = value.substring(pos + 1);
+
+        switch (value.substring(0, pos)) {
+            case "int": return Integer.parseInt(data);
+            case "short": return Short.parseShort(data);
+            case "long": return Long.parseLong(data);
+            case "uuid": return UUID.fromString(data);
+            case "string": return data;
+            case "bytes":
+                try {
+                    return Hex.decodeHex(data.toCharArray());
+                } catch (DecoderException e) {
+                    throw new IOException("Invalid key in checkpoint", e);
+                }
+            default: throw new IOException("Invalid key in checkpoint");
+        }
+    }
+
+    private static class State {
+        Object lastKey;
+        int rows;
+        boolean done;
+    }
+}
@@ -0,0 +1,155 @@
+package nl.gmt.data.migrator;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.UUID;
+
+abstract class ColumnConverter {
+    public static final ColumnConverter INTEGER = new ColumnConverter() {
+        @Override
+        public Object read(ResultSet rs, int column) throws SQLException {
+            int value = rs.getInt(column);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        public void bind(PreparedStatement stmt, int parameter, Object value) throws SQLException {
+            if (value == null) {
+                stmt.setNull(parameter, Types.INTEGER);
+            } else {
+                stmt.setInt(parameter, ((Number)value).intValue());
+            }
+        }
+    };
+
+    public static final ColumnConverter SHORT = new ColumnConverter() {
+        @Override
+        public Object read(ResultSet rs, int column) throws SQLException {
+            short value = rs.getShort(column);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        public void bind(PreparedStatement stmt, int parameter, Object value) throws SQLException {
+            if (value == null) {
+                stmt.setNull(parameter, Types.SMALLINT);
+            } else {
+                stmt.setShort(parameter, ((Number)value).shortValue());
+            }
+        }
+    };
+
+    public static final ColumnConverter LONG = new ColumnConverter() {
+        @Override
+        public Object read(ResultSet rs, int column) throws SQLException {
+            long value = rs.getLong(column);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        public void bind(PreparedStatement stmt, int parameter, Object value) throws SQLException {
+            if (value == null) {
+                stmt.setNull(parameter, Types.BIGINT);
+            } else {
+                stmt.setLong(parameter, ((Number)value).longValue());
+            }
+        }
+    };
+
+    public static final ColumnConverter BOOLEAN = new ColumnConverter() {
+        @Override
+        public Object read(ResultSet rs, int column) throws SQLException {
+            boolean value = rs.getBoolean(column);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        public void bind(PreparedStatement stmt, int parameter, Object value) throws SQLException {
+            if (value == null) {
+                stmt.setNull(parameter, Types.BOOLEAN);
+            } else {
+                stmt.setBoolean(parameter, (Boolean)value);
+            }
+        }
+    };
+
+    public static final ColumnConverter STRING = new ColumnConverter() {
+        @Override
+        public Object read(ResultSet rs, int column) throws SQLException {
+            return rs.getString(column);
+        }
+
+        @Override
+        public void bind(PreparedStatement stmt, int parameter, Object value) throws SQLException {
+            stmt.setString(parameter, value == null ? null : value.toString());
+        }
+    };
+
+    public static final ColumnConverter BYTES = new ColumnConverter() {
+        @Override
+        public Object read(ResultSet rs, int column) throws SQLException {
+            return rs.getBytes(column);
+        }
+
+        @Override
+        public void bind(PreparedStatement stmt, int parameter, Object value) throws SQLException {
+            stmt.setBytes(parameter, (byte[])value);
+        }
+    };
+
+    // UUIDs stored as BINARY(16), most significant bits first.
+
+    public static final ColumnConverter BINARY_UUID = new ColumnConverter() {
+        @Override
+        public Object read(ResultSet rs, int column) throws SQLException {
+            byte[] value = rs.getBytes(column);
+            if (value == null) {
+                return null;
+            }
+
+            if (value.length != 16) {
+                throw new IllegalArgumentException("Expecting 16 byte values to construct a UUID");
+            }
+
+            return new UUID(readLong(value, 0), readLong(value, 8));
+        }
+
+        @Override
+        public void bind(PreparedStatement stmt, int parameter, Object value) throws SQLException {
+            if (value == null) {
+                stmt.setNull(parameter, Types.BINARY);
+                return;
+            }
+
+            UUID uuid = value instanceof UUID ? (UUID)value : UUID.fromString(value.toString());
+            byte[] bytes = new byte[16];
+
+            writeLong(bytes, 0, uuid.getMostSignificantBits());
+            writeLong(bytes, 8, uuid.getLeastSignificantBits());
+
+            stmt.setBytes(parameter, bytes);
+        }
+
+        private long readLong(byte[] bytes, int offset) {
+            long value = 0L;
+
+            for (int i = 0; i < 8; i++) {
+                value = value << 8 | (long)(bytes[offset + i] & 255);
+            }
+
+            return value;
+        }
+
+        private void writeLong(byte[] bytes, int offset, long value) {
+            for (int i = 0; i < 8; i++) {
+                bytes[offset + i] = (byte)(value >>> ((7 - i) * 8));
+            }
+        }
+    };
+
+    public abstract Object read(ResultSet rs, int column) throws SQLException;
+
+    public abstract void bind(PreparedStatement stmt, int parameter, Object value) throws SQLException;
+}
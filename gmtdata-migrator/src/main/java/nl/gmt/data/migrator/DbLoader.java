@@ -5,9 +5,14 @@ import nl.gmt.data.drivers.MySqlDatabaseDriver;
 import nl.gmt.data.drivers.PostgresDatabaseDriver;
 import nl.gmt.data.drivers.SqlServerDatabaseDriver;
 import nl.gmt.data.schema.*;
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.Validate;
 import org.postgresql.util.PGobject;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -28,9 +33,35 @@ public abstract class DbLoader {
         }
     }
 
+    public static String enableBatchRewrite(DatabaseDriver driver, String connectionString) {
+        Validate.notNull(driver, "driver");
+        Validate.notNull(connectionString, "connectionString");
+
+        // Let the JDBC driver rewrite batches into multi row inserts. The PostgreSQL driver only
+        // supports this from 9.4.1209 and SQL Server doesn't have an equivalent option; bulk mode
+        // uses COPY and bulk copy for these instead.
+
+        if (driver instanceof MySqlDatabaseDriver) {
+            return addConnectionParameter(connectionString, "rewriteBatchedStatements", "true");
+        } else {
+            return connectionString;
+        }
+    }
+
+    private static String addConnectionParameter(String connectionString, String name, String value) {
+        // Don't override the parameter when it was provided explicitly.
+
+        if (connectionString.contains(name + "=")) {
+            return connectionString;
+        }
+
+        return connectionString + (connectionString.indexOf('?') == -1 ? '?' : '&') + name + "=" + value;
+    }
+
     protected final Schema schema;
     protected final SchemaClass klass;
     protected final List<SchemaField> schemaFields;
+    protected final ColumnConverter[] converters;
 
     protected DbLoader(Schema schema, SchemaClass klass) {
         Validate.notNull(schema, "schema");
@@ -40,6 +71,7 @@ public abstract class DbLoader {
         this.klass = klass;
 
         schemaFields = getSchemaFields(schema, klass);
+        converters = buildConverters();
     }
 
     protected abstract String escapeName(String name);
@@ -48,29 +80,86 @@ public abstract class DbLoader {
         return String.format("SELECT COUNT(*) FROM %s", escapeName(klass.getResolvedDbName()));
     }
 
-    public String buildSelectQuery() {
-        StringBuilder select = new StringBuilder();
+    public String buildBoundsQuery() {
+        return String.format(
+            "SELECT MIN(%s), MAX(%s) FROM %s",
+            escapeName("Id"),
+            escapeName("Id"),
+            escapeName(klass.getResolvedDbName())
+        );
+    }
 
-        select.append(String.format("SELECT %s", escapeName("Id")));
+    public boolean isPartitionable() {
+        // Only integer keys can be split into ranges.
 
-        for (SchemaField field : schemaFields) {
-            if (field instanceof SchemaForeignChild) {
-                continue;
-            }
+        return hasIntegerKey();
+    }
 
-            String fieldName;
-            if (field instanceof SchemaForeignParent) {
-                fieldName = ((SchemaForeignParent)field).getResolvedDbName();
-            } else {
-                fieldName = ((SchemaProperty)field).getResolvedDbName();
-            }
+    public boolean hasIntegerKey() {
+        Class<?> nativeType = klass.getResolvedIdProperty().getResolvedDataType().getNativeType();
+
+        return nativeType == Integer.class || nativeType == Short.class || nativeType == Long.class;
+    }
+
+    public String buildSelectQuery(TransferPart part, boolean afterKey, int pageSize) {
+        StringBuilder select = new StringBuilder(buildSelectQuery());
 
-            select.append(", ").append(escapeName(fieldName));
+        appendConditions(select, part, afterKey);
+
+        if (pageSize == 0) {
+            return select.toString();
         }
 
-        select.append(" FROM ").append(escapeName(klass.getResolvedDbName()));
+        select.append(" ORDER BY ").append(escapeName("Id"));
+
+        return limit(select.toString(), pageSize);
+    }
+
+    public String buildDeleteQuery(TransferPart part, boolean afterKey) {
+        StringBuilder delete = new StringBuilder("DELETE FROM ").append(escapeName(klass.getResolvedDbName()));
+
+        appendConditions(delete, part, afterKey);
 
-        return select.toString();
+        return delete.toString();
+    }
+
+    private void appendConditions(StringBuilder sb, TransferPart part, boolean afterKey) {
+        Validate.notNull(part, "part");
+
+        // Parameters are bound in the order of the conditions: the key of the last transferred
+        // row, followed by the lower and upper bound of the part.
+
+        List<String> conditions = new ArrayList<>();
+
+        if (afterKey) {
+            conditions.add(escapeName("Id") + " > ?");
+        }
+        if (part.isPartitioned()) {
+            conditions.add(escapeName("Id") + " >= ?");
+            conditions.add(escapeName("Id") + " < ?");
+        }
+
+        if (conditions.size() > 0) {
+            sb.append(" WHERE ").append(StringUtils.join(conditions, " AND "));
+        }
+    }
+
+    protected String limit(String query, int limit) {
+        return query + " LIMIT " + limit;
+    }
+
+    public PreparedStatement prepareSelect(Connection connection, String query) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+
+        stmt.setFetchSize(getFetchSize());
+
+        return stmt;
+    }
+
+    protected abstract int getFetchSize();
+
+    public String buildSelectQuery() {
+        return String.format("SELECT %s FROM %s", buildColumnList(), escapeName(klass.getResolvedDbName()));
     }
 
     public String buildInsertQuery() {
@@ -80,15 +169,24 @@ public abstract class DbLoader {
             .append("INSERT INTO ")
             .append(escapeName(klass.getResolvedDbName()))
             .append(" (")
-            .append(escapeName("Id"));
+            .append(buildColumnList())
+            .append(") VALUES (?");
 
-        List<SchemaField> schemaFields = getSchemaFields(schema, klass);
+        for (int i = 0; i < schemaFields.size(); i++) {
+            insert.append(", ?");
+        }
 
-        for (SchemaField field : schemaFields) {
-            if (field instanceof SchemaForeignChild) {
-                continue;
-            }
+        insert.append(')');
 
+        return insert.toString();
+    }
+
+    protected String buildColumnList() {
+        StringBuilder columns = new StringBuilder();
+
+        columns.append(escapeName("Id"));
+
+        for (SchemaField field : schemaFields) {
             String fieldName;
             if (field instanceof SchemaForeignParent) {
                 fieldName = ((SchemaForeignParent)field).getResolvedDbName();
@@ -96,18 +194,20 @@ public abstract class DbLoader {
                 fieldName = ((SchemaProperty)field).getResolvedDbName();
             }
 
-            insert.append(", ").append(escapeName(fieldName));
+            columns.append(", ").append(escapeName(fieldName));
         }
 
-        insert.append(") VALUES (?");
+        return columns.toString();
+    }
 
-        for (int i = 0; i < schemaFields.size(); i++) {
-            insert.append(", ?");
-        }
+    public int getColumnCount() {
+        return schemaFields.size() + 1;
+    }
 
-        insert.append(')');
+    public BulkSink createBulkSink(Connection connection, int batchSize) throws SQLException {
+        // Loaders that don't have a native bulk loader return null to fall back to batched inserts.
 
-        return insert.toString();
+        return null;
     }
 
     private List<SchemaField> getSchemaFields(Schema schema, SchemaClass klass) {
@@ -130,6 +230,64 @@ public abstract class DbLoader {
         }
     }
 
+    private ColumnConverter[] buildConverters() {
+        // The converters are resolved once per table so the transfer loop doesn't have to inspect
+        // the values it reads.
+
+        ColumnConverter[] converters = new ColumnConverter[getColumnCount()];
+
+        converters[0] = getConverter(0, klass.getResolvedIdProperty().getResolvedDataType().getNativeType());
+
+        for (int i = 0; i < schemaFields.size(); i++) {
+            SchemaField field = schemaFields.get(i);
+            Class<?> nativeType;
+
+            if (field instanceof SchemaForeignParent) {
+                SchemaClass parent = schema.getClasses().get(((SchemaForeignParent)field).getClassName());
+                nativeType = parent.getResolvedIdProperty().getResolvedDataType().getNativeType();
+            } else {
+                nativeType = ((SchemaProperty)field).getResolvedDataType().getNativeType();
+            }
+
+            converters[i + 1] = getConverter(i + 1, nativeType);
+        }
+
+        return converters;
+    }
+
+    protected ColumnConverter getConverter(int index, Class<?> nativeType) {
+        if (nativeType == Integer.class) {
+            return ColumnConverter.INTEGER;
+        }
+        if (nativeType == Short.class) {
+            return ColumnConverter.SHORT;
+        }
+        if (nativeType == Long.class) {
+            return ColumnConverter.LONG;
+        }
+        if (nativeType == Boolean.class) {
+            return ColumnConverter.BOOLEAN;
+        }
+        if (nativeType == String.class) {
+            return ColumnConverter.STRING;
+        }
+        if (nativeType == Byte[].class) {
+            // Binary types are declared as Byte[] in the schema, but are read as byte[].
+
+            return ColumnConverter.BYTES;
+        }
+
+        return new DefaultConverter(index);
+    }
+
+    public Object readValue(ResultSet rs, int index) throws SQLException {
+        return converters[index].read(rs, index + 1);
+    }
+
+    public void bindValue(PreparedStatement stmt, int parameter, int index, Object value) throws SQLException {
+        converters[index].bind(stmt, parameter, value);
+    }
+
     public Object parseValue(int index, Object value) {
         return value;
     }
@@ -138,37 +296,35 @@ public abstract class DbLoader {
         return value;
     }
 
-    private static class MySqlDbLoader extends DbLoader {
-        private final boolean[] uuidFields;
+    private class DefaultConverter extends ColumnConverter {
+        private final int index;
 
-        protected MySqlDbLoader(Schema schema, SchemaClass klass) {
-            super(schema, klass);
+        DefaultConverter(int index) {
+            this.index = index;
+        }
 
-            uuidFields = getUuidFields(schemaFields);
+        @Override
+        public Object read(ResultSet rs, int column) throws SQLException {
+            return parseValue(index, rs.getObject(column));
         }
 
-        private boolean[] getUuidFields(List<SchemaField> fields) {
-            boolean[] uuidFields = new boolean[fields.size() + 1];
-            boolean idIsUuid = schema.getIdProperty().getResolvedDataType().getNativeType() == UUID.class;
-            int offset = 1;
+        @Override
+        public void bind(PreparedStatement stmt, int parameter, Object value) throws SQLException {
+            stmt.setObject(parameter, printValue(index, value));
+        }
+    }
 
-            uuidFields[0] = idIsUuid;
+    private static class MySqlDbLoader extends DbLoader {
+        private final boolean[] uuidFields;
 
-            for (SchemaField field : fields) {
-                if (field instanceof SchemaForeignChild) {
-                    continue;
-                }
+        protected MySqlDbLoader(Schema schema, SchemaClass klass) {
+            super(schema, klass);
 
-                if (field instanceof SchemaProperty) {
-                    uuidFields[offset] = ((SchemaProperty)field).getResolvedDataType().getNativeType() == UUID.class;
-                } else {
-                    uuidFields[offset] = idIsUuid;
-                }
+            uuidFields = new boolean[converters.length];
 
-                offset++;
+            for (int i = 0; i < converters.length; i++) {
+                uuidFields[i] = converters[i] == ColumnConverter.BINARY_UUID;
             }
-
-            return uuidFields;
         }
 
         @Override
@@ -177,40 +333,34 @@ public abstract class DbLoader {
         }
 
         @Override
-        public Object parseValue(int index, Object value) {
-            if (uuidFields[index]) {
-                return bytesToUuid((byte[])value);
-            }
+        protected int getFetchSize() {
+            // This tells the MySQL driver to stream the result set row by row instead of reading
+            // it into memory completely.
 
-            return super.parseValue(index, value);
+            return Integer.MIN_VALUE;
         }
 
-        private UUID bytesToUuid(byte[] value) {
-            if (value == null) {
-                return null;
-            }
-
-            byte[] msb = new byte[8];
-            byte[] lsb = new byte[8];
-            System.arraycopy(value, 0, msb, 0, 8);
-            System.arraycopy(value, 8, lsb, 0, 8);
-            return new UUID(asLong(msb), asLong(lsb));
+        @Override
+        public BulkSink createBulkSink(Connection connection, int batchSize) throws SQLException {
+            String sql = String.format(
+                "LOAD DATA LOCAL INFILE 'stream' INTO TABLE %s CHARACTER SET binary " +
+                "FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' (%s)",
+                escapeName(klass.getResolvedDbName()),
+                buildColumnList()
+            );
+
+            return new MySqlBulkSink(connection, sql, uuidFields, batchSize);
         }
 
-        private static long asLong(byte[] bytes) {
-            if(bytes == null) {
-                return 0L;
-            } else if(bytes.length != 8) {
-                throw new IllegalArgumentException("Expecting 8 byte values to construct a long");
-            } else {
-                long value = 0L;
-
-                for(int i = 0; i < 8; ++i) {
-                    value = value << 8 | (long)(bytes[i] & 255);
-                }
+        @Override
+        protected ColumnConverter getConverter(int index, Class<?> nativeType) {
+            // MySQL doesn't have a UUID type; these are stored as BINARY(16).
 
-                return value;
+            if (nativeType == UUID.class) {
+                return ColumnConverter.BINARY_UUID;
             }
+
+            return super.getConverter(index, nativeType);
         }
     }
 
@@ -224,6 +374,24 @@ public abstract class DbLoader {
             return "\"" + name + "\"";
         }
 
+        @Override
+        protected int getFetchSize() {
+            // Postgres only uses a cursor when auto commit is disabled, which the transferer does.
+
+            return 10000;
+        }
+
+        @Override
+        public BulkSink createBulkSink(Connection connection, int batchSize) throws SQLException {
+            String sql = String.format(
+                "COPY %s (%s) FROM STDIN WITH (FORMAT csv)",
+                escapeName(klass.getResolvedDbName()),
+                buildColumnList()
+            );
+
+            return new PostgresBulkSink(connection, sql);
+        }
+
         @Override
         public Object parseValue(int index, Object value) {
             if (value instanceof PGobject) {
@@ -251,12 +419,34 @@ public abstract class DbLoader {
         }
 
         @Override
-        public Object printValue(int index, Object value) {
-            if (value instanceof UUID) {
-                return value.toString();
+        protected String limit(String query, int limit) {
+            return "SELECT TOP " + limit + query.substring("SELECT".length());
+        }
+
+        @Override
+        protected int getFetchSize() {
+            return 10000;
+        }
+
+        @Override
+        public BulkSink createBulkSink(Connection connection, int batchSize) throws SQLException {
+            return new SqlServerBulkSink(
+                connection,
+                escapeName(klass.getResolvedDbName()),
+                String.format("SELECT %s FROM %s WHERE 1 = 0", buildColumnList(), escapeName(klass.getResolvedDbName())),
+                batchSize
+            );
+        }
+
+        @Override
+        protected ColumnConverter getConverter(int index, Class<?> nativeType) {
+            // The driver reads and writes uniqueidentifier columns as strings.
+
+            if (nativeType == UUID.class) {
+                return ColumnConverter.STRING;
             }
 
-            return super.printValue(index, value);
+            return super.getConverter(index, nativeType);
         }
     }
 }
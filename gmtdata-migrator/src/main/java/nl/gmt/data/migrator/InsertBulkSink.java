@@ -0,0 +1,55 @@
+package nl.gmt.data.migrator;
+
+import org.apache.commons.lang.Validate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+class InsertBulkSink extends BulkSink {
+    private final DbLoader loader;
+    private final PreparedStatement stmt;
+    private final int batchSize;
+    private int column;
+    private int batched;
+
+    InsertBulkSink(DbLoader loader, Connection connection, int batchSize) throws SQLException {
+        Validate.notNull(loader, "loader");
+        Validate.notNull(connection, "connection");
+
+        this.loader = loader;
+        this.batchSize = batchSize;
+
+        stmt = connection.prepareStatement(loader.buildInsertQuery());
+    }
+
+    @Override
+    public void addValue(Object value) throws SQLException {
+        loader.bindValue(stmt, column + 1, column, value);
+
+        column++;
+    }
+
+    @Override
+    public void endRow() throws SQLException {
+        stmt.addBatch();
+        column = 0;
+
+        if (++batched == batchSize) {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() throws SQLException {
+        if (batched > 0) {
+            stmt.executeBatch();
+            batched = 0;
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        stmt.close();
+    }
+}
@@ -0,0 +1,120 @@
+package nl.gmt.data.migrator;
+
+import org.apache.commons.lang.Validate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+class MySqlBulkSink extends BulkSink {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final Connection connection;
+    private final String sql;
+    private final boolean[] uuidFields;
+    private final int batchSize;
+    private final Buffer buffer = new Buffer();
+    private int column;
+    private int rows;
+
+    MySqlBulkSink(Connection connection, String sql, boolean[] uuidFields, int batchSize) {
+        Validate.notNull(connection, "connection");
+        Validate.notNull(sql, "sql");
+        Validate.notNull(uuidFields, "uuidFields");
+
+        this.connection = connection;
+        this.sql = sql;
+        this.uuidFields = uuidFields;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void addValue(Object value) {
+        if (column > 0) {
+            buffer.write('\t');
+        }
+
+        if (value == null) {
+            buffer.write('\\');
+            buffer.write('N');
+        } else if (uuidFields[column]) {
+            UUID uuid = value instanceof UUID ? (UUID)value : UUID.fromString(value.toString());
+
+            writeLong(uuid.getMostSignificantBits());
+            writeLong(uuid.getLeastSignificantBits());
+        } else if (value instanceof byte[]) {
+            writeEscaped((byte[])value);
+        } else if (value instanceof Boolean) {
+            buffer.write((Boolean)value ? '1' : '0');
+        } else if (value instanceof BigDecimal) {
+            writeEscaped(((BigDecimal)value).toPlainString().getBytes(UTF8));
+        } else {
+            writeEscaped(value.toString().getBytes(UTF8));
+        }
+
+        column++;
+    }
+
+    private void writeLong(long value) {
+        for (int i = 7; i >= 0; i--) {
+            writeEscaped((byte)(value >>> (i * 8)));
+        }
+    }
+
+    private void writeEscaped(byte[] bytes) {
+        for (byte b : bytes) {
+            writeEscaped(b);
+        }
+    }
+
+    private void writeEscaped(byte b) {
+        switch (b) {
+            case '\\': buffer.write('\\'); buffer.write('\\'); break;
+            case '\t': buffer.write('\\'); buffer.write('t'); break;
+            case '\n': buffer.write('\\'); buffer.write('n'); break;
+            case '\r': buffer.write('\\'); buffer.write('r'); break;
+            case 0: buffer.write('\\'); buffer.write('0'); break;
+            default: buffer.write(b); break;
+        }
+    }
+
+    @Override
+    public void endRow() throws SQLException {
+        buffer.write('\n');
+        column = 0;
+
+        if (++rows == batchSize) {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() throws SQLException {
+        if (rows == 0) {
+            return;
+        }
+
+        // The buffered rows are handed to the driver as the contents of the local file
+        // named in the LOAD DATA statement.
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.unwrap(com.mysql.jdbc.Statement.class).setLocalInfileInputStream(buffer.toInputStream());
+            stmt.execute(sql);
+        }
+
+        buffer.reset();
+        rows = 0;
+    }
+
+    private static class Buffer extends ByteArrayOutputStream {
+        public InputStream toInputStream() {
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+    }
+}
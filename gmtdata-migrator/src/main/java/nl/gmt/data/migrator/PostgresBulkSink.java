@@ -0,0 +1,102 @@
+package nl.gmt.data.migrator;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.lang.Validate;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+class PostgresBulkSink extends BulkSink {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final Connection connection;
+    private final String sql;
+    private final StringBuilder row = new StringBuilder();
+    private boolean firstValue = true;
+    private CopyIn copyIn;
+
+    PostgresBulkSink(Connection connection, String sql) {
+        Validate.notNull(connection, "connection");
+        Validate.notNull(sql, "sql");
+
+        this.connection = connection;
+        this.sql = sql;
+    }
+
+    @Override
+    public void addValue(Object value) {
+        if (firstValue) {
+            firstValue = false;
+        } else {
+            row.append(',');
+        }
+
+        // In CSV format an unquoted empty value is NULL, so everything else is quoted.
+
+        if (value == null) {
+            return;
+        }
+
+        String text;
+
+        if (value instanceof byte[]) {
+            text = "\\x" + Hex.encodeHexString((byte[])value);
+        } else if (value instanceof Boolean) {
+            text = (Boolean)value ? "1" : "0";
+        } else if (value instanceof BigDecimal) {
+            text = ((BigDecimal)value).toPlainString();
+        } else {
+            text = value.toString();
+        }
+
+        row.append('"');
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                row.append('"');
+            }
+            row.append(c);
+        }
+
+        row.append('"');
+    }
+
+    @Override
+    public void endRow() throws SQLException {
+        row.append('\n');
+
+        // The COPY is started lazily so that flushing doesn't leave an empty COPY open.
+
+        if (copyIn == null) {
+            copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+        }
+
+        byte[] bytes = row.toString().getBytes(UTF8);
+
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+
+        row.setLength(0);
+        firstValue = true;
+    }
+
+    @Override
+    public void flush() throws SQLException {
+        if (copyIn != null) {
+            copyIn.endCopy();
+            copyIn = null;
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (copyIn != null && copyIn.isActive()) {
+            copyIn.cancelCopy();
+            copyIn = null;
+        }
+    }
+}
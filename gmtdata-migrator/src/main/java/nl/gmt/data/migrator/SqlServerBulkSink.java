@@ -0,0 +1,146 @@
+package nl.gmt.data.migrator;
+
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkRecord;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopy;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions;
+import org.apache.commons.lang.Validate;
+
+import java.sql.*;
+import java.util.*;
+
+class SqlServerBulkSink extends BulkSink {
+    private final SQLServerBulkCopy bulkCopy;
+    private final int[] columnTypes;
+    private final int[] precisions;
+    private final int[] scales;
+    private final String[] columnNames;
+    private final Object[][] rows;
+    private int column;
+    private int rowCount;
+
+    SqlServerBulkSink(Connection connection, String tableName, String metadataQuery, int batchSize) throws SQLException {
+        Validate.notNull(connection, "connection");
+        Validate.notNull(tableName, "tableName");
+        Validate.notNull(metadataQuery, "metadataQuery");
+
+        // The bulk copy API needs the JDBC types of the target columns. We get these from an
+        // empty select on the target table.
+
+        try (Statement stmt = connection.createStatement()) {
+            ResultSetMetaData metaData = stmt.executeQuery(metadataQuery).getMetaData();
+            int columnCount = metaData.getColumnCount();
+
+            columnTypes = new int[columnCount];
+            precisions = new int[columnCount];
+            scales = new int[columnCount];
+            columnNames = new String[columnCount];
+
+            for (int i = 0; i < columnCount; i++) {
+                columnTypes[i] = metaData.getColumnType(i + 1);
+                precisions[i] = metaData.getPrecision(i + 1);
+                scales[i] = metaData.getScale(i + 1);
+                columnNames[i] = metaData.getColumnName(i + 1);
+            }
+        }
+
+        SQLServerBulkCopyOptions options = new SQLServerBulkCopyOptions();
+
+        options.setKeepIdentity(true);
+        options.setKeepNulls(true);
+        options.setBatchSize(batchSize);
+
+        bulkCopy = new SQLServerBulkCopy(connection);
+        bulkCopy.setBulkCopyOptions(options);
+        bulkCopy.setDestinationTableName(tableName);
+
+        // SQLServerBulkCopy pulls rows from a record source, so rows are buffered into a reused
+        // array and written one batch at a time.
+
+        rows = new Object[batchSize][columnNames.length];
+    }
+
+    @Override
+    public void addValue(Object value) {
+        if (value instanceof UUID) {
+            value = value.toString();
+        }
+
+        rows[rowCount][column++] = value;
+    }
+
+    @Override
+    public void endRow() throws SQLException {
+        column = 0;
+
+        if (++rowCount == rows.length) {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() throws SQLException {
+        if (rowCount == 0) {
+            return;
+        }
+
+        bulkCopy.writeToServer(new BufferRecord());
+
+        rowCount = 0;
+    }
+
+    @Override
+    public void close() {
+        bulkCopy.close();
+    }
+
+    private class BufferRecord implements ISQLServerBulkRecord {
+        private final Set<Integer> ordinals = new LinkedHashSet<>();
+        private int offset = -1;
+
+        public BufferRecord() {
+            for (int i = 0; i < columnNames.length; i++) {
+                ordinals.add(i + 1);
+            }
+        }
+
+        @Override
+        public Set<Integer> getColumnOrdinals() {
+            return ordinals;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columnNames[column - 1];
+        }
+
+        @Override
+        public int getColumnType(int column) {
+            return columnTypes[column - 1];
+        }
+
+        @Override
+        public int getPrecision(int column) {
+            return precisions[column - 1];
+        }
+
+        @Override
+        public int getScale(int column) {
+            return scales[column - 1];
+        }
+
+        @Override
+        public boolean isAutoIncrement(int column) {
+            return false;
+        }
+
+        @Override
+        public Object[] getRowData() {
+            return rows[offset];
+        }
+
+        @Override
+        public boolean next() {
+            return ++offset < rowCount;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package nl.gmt.data.migrator;
+
+import nl.gmt.data.schema.SchemaClass;
+import org.apache.commons.lang.Validate;
+
+class TransferPart {
+    private final SchemaClass klass;
+    private final Long lowerBound;
+    private final Long upperBound;
+
+    TransferPart(SchemaClass klass) {
+        this(klass, null, null);
+    }
+
+    TransferPart(SchemaClass klass, Long lowerBound, Long upperBound) {
+        Validate.notNull(klass, "klass");
+        Validate.isTrue((lowerBound == null) == (upperBound == null), "Either both or none of the bounds must be provided");
+
+        this.klass = klass;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+    }
+
+    public SchemaClass getKlass() {
+        return klass;
+    }
+
+    public boolean isPartitioned() {
+        return lowerBound != null;
+    }
+
+    public Long getLowerBound() {
+        return lowerBound;
+    }
+
+    public Long getUpperBound() {
+        return upperBound;
+    }
+
+    @Override
+    public String toString() {
+        if (isPartitioned()) {
+            return String.format("%s [%d, %d)", klass.getName(), lowerBound, upperBound);
+        }
+
+        return klass.getName();
+    }
+}
@@ -7,63 +7,195 @@ import nl.gmt.data.drivers.PostgresDatabaseDriver;
 import nl.gmt.data.drivers.SqlServerDatabaseDriver;
 import nl.gmt.data.migrate.*;
 import nl.gmt.data.schema.*;
+import org.apache.commons.lang.Validate;
 
+import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Transferer {
     private final Arguments arguments;
-    private Connection from;
-    private Connection to;
     private DatabaseDriver fromDriver;
     private DatabaseDriver toDriver;
     private Schema schema;
+    private String targetConnectionString;
+    private Checkpoint checkpoint;
+    private final AtomicInteger completed = new AtomicInteger();
 
     public Transferer(Arguments arguments) {
         this.arguments = arguments;
     }
 
-    public void transfer() throws DataException, SchemaException, SQLException, SchemaMigrateException {
-        System.out.println("Connecting to the source database");
-
+    public void transfer() throws DataException, SchemaException, SQLException, SchemaMigrateException, IOException {
         fromDriver = createDriver(arguments.getFrom());
-        from = fromDriver.createConnection(arguments.getFrom());
-        from.setAutoCommit(false);
-
-        System.out.println("Connecting to the destination database");
-
         toDriver = createDriver(arguments.getTo());
-        to = toDriver.createConnection(arguments.getTo());
-        to.setAutoCommit(false);
+        targetConnectionString = DbLoader.enableBatchRewrite(toDriver, arguments.getTo());
 
         System.out.println("Loading the schema");
 
         SchemaParserExecutor parserExecutor = new SchemaParserExecutor(new SchemaCallbackImpl());
         schema = parserExecutor.parse(arguments.getSchema(), GenericSchemaRules.INSTANCE);
 
-        System.out.println("Clearing the target database");
+        File checkpointFile = new File(arguments.getCheckpoint());
+
+        if (arguments.isResume()) {
+            System.out.println("Resuming from the checkpoint");
+
+            checkpoint = Checkpoint.load(checkpointFile, schema);
+        } else {
+            System.out.println("Clearing the target database");
+
+            migrate(arguments.getTo(), "Empty.schema", toDriver, false);
+
+            System.out.println("Creating the target database without constraints or indexes");
 
-        migrate(arguments.getTo(), "Empty.schema", toDriver, false);
+            migrate(arguments.getTo(), arguments.getSchema(), toDriver, true);
 
-        System.out.println("Creating the target database without constraints or indexes");
+            System.out.println("Planning the transfer");
 
-        migrate(arguments.getTo(), arguments.getSchema(), toDriver, true);
+            List<TransferPart> parts = new ArrayList<>();
 
-        System.out.println("Transferring data...");
+            try (Connection from = fromDriver.createConnection(arguments.getFrom())) {
+                from.setAutoCommit(false);
 
-        for (Map.Entry<String, SchemaClass> entry : schema.getClasses().entrySet()) {
-            transfer(entry.getValue());
+                for (Map.Entry<String, SchemaClass> entry : schema.getClasses().entrySet()) {
+                    addParts(from, entry.getValue(), parts);
+                }
+
+                from.commit();
+            }
+
+            checkpoint = Checkpoint.create(checkpointFile, parts);
         }
 
+        List<TransferPart> parts = checkpoint.getParts();
+
+        System.out.println(String.format("Transferring data in %d parts using %d threads...", parts.size(), arguments.getThreads()));
+
+        transfer(parts);
+
+        // Constraints and indexes are only created once all parts have been transferred.
+
         System.out.println("Creating constraints and indexes");
 
         migrate(arguments.getTo(), arguments.getSchema(), toDriver, false);
     }
 
+    private void addParts(Connection from, SchemaClass klass, List<TransferPart> parts) throws SQLException {
+        DbLoader loader = DbLoader.fromDriver(fromDriver, schema, klass);
+
+        int count = getRecordCount(from, loader.buildCountQuery());
+        if (count == 0) {
+            return;
+        }
+
+        int partitionSize = arguments.getPartitionSize();
+
+        if (partitionSize == 0 || count <= partitionSize) {
+            parts.add(new TransferPart(klass));
+            return;
+        }
+
+        if (!loader.isPartitionable()) {
+            System.out.println(String.format("Not partitioning %s because its key cannot be split into ranges", klass.getName()));
+
+            parts.add(new TransferPart(klass));
+            return;
+        }
+
+        long min;
+        long max;
+
+        try (Statement stmt = from.createStatement()) {
+            ResultSet rs = stmt.executeQuery(loader.buildBoundsQuery());
+
+            if (!rs.next()) {
+                throw new IllegalStateException("Cannot get key bounds");
+            }
+
+            min = rs.getLong(1);
+            max = rs.getLong(2);
+        }
+
+        if (!isSplittable(min, max)) {
+            System.out.println(String.format("Not partitioning %s because its keys span too large a range", klass.getName()));
+
+            parts.add(new TransferPart(klass));
+            return;
+        }
+
+        parts.addAll(splitRange(klass, count, partitionSize, min, max));
+    }
+
+    static boolean isSplittable(long min, long max) {
+        // The upper bounds are exclusive, so the ranges must fit in a long.
+
+        return max - min >= 0 && max != Long.MAX_VALUE;
+    }
+
+    static List<TransferPart> splitRange(SchemaClass klass, int count, int partitionSize, long min, long max) {
+        Validate.isTrue(partitionSize > 0, "partitionSize must be positive");
+        Validate.isTrue(isSplittable(min, max), "Key range cannot be split");
+
+        // Split the key space into ranges that hold approximately partition size rows. This assumes
+        // the keys are distributed evenly, which is true for auto increment keys.
+
+        List<TransferPart> parts = new ArrayList<>();
+
+        long partCount = (count + partitionSize - 1) / partitionSize;
+        long step = Math.max(1, (max - min) / partCount + 1);
+
+        for (long lower = min; ; lower += step) {
+            if (max - lower < step) {
+                parts.add(new TransferPart(klass, lower, max + 1));
+                break;
+            }
+
+            parts.add(new TransferPart(klass, lower, lower + step));
+        }
+
+        return parts;
+    }
+
+    private void transfer(List<TransferPart> parts) throws DataException, SQLException {
+        ExecutorService executor = Executors.newFixedThreadPool(arguments.getThreads());
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+
+            for (TransferPart part : parts) {
+                futures.add(executor.submit(new TransferTask(part, parts.size())));
+            }
+
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof SQLException) {
+                        throw (SQLException)e.getCause();
+                    }
+
+                    throw new DataException("Cannot transfer data", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new DataException("Transfer was interrupted", e);
+        } finally {
+            // Stop any outstanding parts when one of them has failed.
+
+            executor.shutdownNow();
+        }
+    }
+
     private DatabaseDriver createDriver(String connectionString) {
         if (connectionString.startsWith("jdbc:postgresql:")) {
             return new PostgresDatabaseDriver();
@@ -77,70 +209,121 @@ public class Transferer {
         throw new IllegalStateException("Cannot resolve database driver from the connection string");
     }
 
-    private void transfer(SchemaClass klass) throws SQLException {
+    private int transfer(TransferPart part, Connection from, Connection to) throws SQLException, IOException {
+        SchemaClass klass = part.getKlass();
         DbLoader sourceLoader = DbLoader.fromDriver(fromDriver, schema, klass);
         DbLoader targetLoader = DbLoader.fromDriver(toDriver, schema, klass);
 
-        System.out.print(String.format("%s...", klass.getName()));
+        int columnCount = sourceLoader.getColumnCount();
+        int pageSize = arguments.getPageSize();
+        int commitEvery = arguments.getCommitEvery();
+        boolean keysetResume = isKeysetResume(sourceLoader);
+        Object lastKey = keysetResume ? checkpoint.getLastKey(part) : null;
+        int count = lastKey != null ? checkpoint.getRows(part) : 0;
 
-        int count = getRecordCount(sourceLoader.buildCountQuery());
-        int offset = 0;
+        if (arguments.isResume()) {
+            removeUncheckpointedRows(part, lastKey, targetLoader, to);
+        }
 
-        String selectQuery = sourceLoader.buildSelectQuery();
-        String insertQuery = targetLoader.buildInsertQuery();
+        BulkSink sink = null;
+        if (arguments.isBulk()) {
+            sink = targetLoader.createBulkSink(to, arguments.getBatchSize());
+        }
+        if (sink == null) {
+            sink = new InsertBulkSink(targetLoader, to, arguments.getBatchSize());
+        }
 
-        List<SchemaField> schemaFields = getSchemaFields(klass);
+        try {
+            // Rows are read in pages ordered by key. Every page continues after the key of the last
+            // row of the previous page, so memory use doesn't depend on the size of the table.
 
-        try (
-            PreparedStatement toStmt = to.prepareStatement(insertQuery);
-            Statement fromStmt = from.createStatement()
-        ) {
-            ResultSet rs = fromStmt.executeQuery(selectQuery);
-            int fieldCount = schemaFields.size() + 1;
+            while (true) {
+                int rows = 0;
 
-            while (rs.next()) {
-                if (offset++ % 1000 == 0) {
-                    to.commit();
-                    System.out.print(String.format("\r%s %d of %d", klass.getName(), offset, count));
-                }
+                try (PreparedStatement fromStmt = sourceLoader.prepareSelect(from, sourceLoader.buildSelectQuery(part, lastKey != null, pageSize))) {
+                    int parameter = 1;
+
+                    if (lastKey != null) {
+                        sourceLoader.bindValue(fromStmt, parameter++, 0, lastKey);
+                    }
+                    if (part.isPartitioned()) {
+                        fromStmt.setLong(parameter++, part.getLowerBound());
+                        fromStmt.setLong(parameter, part.getUpperBound());
+                    }
 
-                for (int i = 0; i < fieldCount; i++) {
-                    Object value = rs.getObject(i + 1);
-                    value = targetLoader.printValue(i, sourceLoader.parseValue(i, value));
-                    toStmt.setObject(i + 1, value);
+                    try (ResultSet rs = fromStmt.executeQuery()) {
+                        while (rs.next()) {
+                            lastKey = sourceLoader.readValue(rs, 0);
+                            sink.addValue(lastKey);
+
+                            for (int i = 1; i < columnCount; i++) {
+                                sink.addValue(sourceLoader.readValue(rs, i));
+                            }
+
+                            sink.endRow();
+
+                            rows++;
+
+                            if (++count % commitEvery == 0) {
+                                sink.flush();
+                                to.commit();
+
+                                checkpoint.update(part, keysetResume ? lastKey : null, count, false);
+                            }
+                        }
+                    }
                 }
 
-                toStmt.executeUpdate();
+                if (pageSize == 0 || rows < pageSize) {
+                    break;
+                }
             }
 
-            to.commit();
-            from.commit();
+            sink.flush();
+        } finally {
+            sink.close();
         }
 
-        System.out.println();
-    }
+        to.commit();
+        from.commit();
 
-    private List<SchemaField> getSchemaFields(SchemaClass klass) {
-        List<SchemaField> fields = new ArrayList<>();
+        checkpoint.update(part, keysetResume ? lastKey : null, count, true);
+
+        return count;
+    }
 
-        addSchemaFields(klass, fields);
+    private boolean isKeysetResume(DbLoader sourceLoader) {
+        // A resumed part continues after the last checkpointed key, and the rows after it are
+        // removed from the target. That only works when both databases order the keys the same
+        // way, which is only certain for integers; UUIDs and strings sort differently on e.g.
+        // SQL Server or under other collations. Without paging rows aren't ordered by key at
+        // all. In these cases a resumed part starts over.
 
-        return fields;
+        return arguments.getPageSize() > 0 && sourceLoader.hasIntegerKey();
     }
 
-    private void addSchemaFields(SchemaClassBase klass, List<SchemaField> fields) {
-        for (SchemaField field : klass.getFields()) {
-            if (!(field instanceof SchemaForeignChild)) {
-                fields.add(field);
+    private void removeUncheckpointedRows(TransferPart part, Object lastKey, DbLoader targetLoader, Connection to) throws SQLException {
+        // Rows may have been committed after the last checkpoint was written. These are removed
+        // so the part can continue after the checkpointed key without duplicate keys.
+
+        try (PreparedStatement stmt = to.prepareStatement(targetLoader.buildDeleteQuery(part, lastKey != null))) {
+            int parameter = 1;
+
+            if (lastKey != null) {
+                targetLoader.bindValue(stmt, parameter++, 0, lastKey);
+            }
+            if (part.isPartitioned()) {
+                stmt.setLong(parameter++, part.getLowerBound());
+                stmt.setLong(parameter, part.getUpperBound());
             }
-        }
 
-        for (String mixin : klass.getMixins()) {
-            addSchemaFields(schema.getMixins().get(mixin), fields);
+            stmt.executeUpdate();
         }
+
+        to.commit();
     }
 
-    private int getRecordCount(String query) throws SQLException {
+    private int getRecordCount(Connection from, String query) throws SQLException {
         try (Statement stmt = from.createStatement()) {
             ResultSet rs = stmt.executeQuery(query);
 
@@ -178,6 +361,43 @@ public class Transferer {
         }
     }
 
+    private class TransferTask implements Callable<Void> {
+        private final TransferPart part;
+        private final int partCount;
+
+        public TransferTask(TransferPart part, int partCount) {
+            this.part = part;
+            this.partCount = partCount;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            if (checkpoint.isDone(part)) {
+                System.out.println(String.format("%s: already transferred (%d of %d)", part, completed.incrementAndGet(), partCount));
+
+                return null;
+            }
+
+            // Every part gets its own connection pair so parts don't have to share transactions.
+
+            int count;
+
+            try (
+                Connection from = fromDriver.createConnection(arguments.getFrom());
+                Connection to = toDriver.createConnection(targetConnectionString)
+            ) {
+                from.setAutoCommit(false);
+                to.setAutoCommit(false);
+
+                count = transfer(part, from, to);
+            }
+
+            System.out.println(String.format("%s: %d rows (%d of %d)", part, count, completed.incrementAndGet(), partCount));
+
+            return null;
+        }
+    }
+
     private class SchemaCallbackImpl implements SchemaCallback {
         private Iterable<SqlStatement> statements;
 
@@ -0,0 +1,153 @@
+package nl.gmt.data.migrator;
+
+import nl.gmt.data.schema.Schema;
+import nl.gmt.data.schema.SchemaClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class CheckpointFixture {
+    private static Schema schema;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+
+    @BeforeClass
+    public static void setupSchema() throws Exception {
+        schema = TestSchema.load();
+    }
+
+    @Before
+    public void setup() {
+        file = new File(folder.getRoot(), "checkpoint.properties");
+    }
+
+    @Test
+    public void saveAndLoad() throws Exception {
+        SchemaClass address = schema.getClasses().get("Address");
+        SchemaClass relation = schema.getClasses().get("Relation");
+
+        Checkpoint checkpoint = Checkpoint.create(file, Arrays.asList(
+            new TransferPart(address, 1L, 51L),
+            new TransferPart(address, 51L, 101L),
+            new TransferPart(relation)
+        ));
+
+        List<TransferPart> parts = checkpoint.getParts();
+
+        checkpoint.update(parts.get(0), null, 50, true);
+        checkpoint.update(parts.get(1), 75, 25, false);
+
+        checkpoint = Checkpoint.load(file, schema);
+        parts = checkpoint.getParts();
+
+        assertEquals(3, parts.size());
+
+        assertSame(address, parts.get(0).getKlass());
+        assertEquals(1L, (long)parts.get(0).getLowerBound());
+        assertEquals(51L, (long)parts.get(0).getUpperBound());
+        assertTrue(checkpoint.isDone(parts.get(0)));
+        assertEquals(50, checkpoint.getRows(parts.get(0)));
+        assertNull(checkpoint.getLastKey(parts.get(0)));
+
+        assertEquals(51L, (long)parts.get(1).getLowerBound());
+        assertEquals(101L, (long)parts.get(1).getUpperBound());
+        assertFalse(checkpoint.isDone(parts.get(1)));
+        assertEquals(25, checkpoint.getRows(parts.get(1)));
+        assertEquals(75, checkpoint.getLastKey(parts.get(1)));
+
+        assertSame(relation, parts.get(2).getKlass());
+        assertFalse(parts.get(2).isPartitioned());
+        assertFalse(checkpoint.isDone(parts.get(2)));
+        assertEquals(0, checkpoint.getRows(parts.get(2)));
+
+        // Nothing is left behind from writing the checkpoint.
+
+        assertArrayEquals(new String[] { file.getName() }, folder.getRoot().list());
+    }
+
+    @Test
+    public void intKey() throws Exception {
+        assertEquals(Integer.MIN_VALUE, roundTrip(Integer.MIN_VALUE));
+    }
+
+    @Test
+    public void shortKey() throws Exception {
+        assertEquals((short)-12, roundTrip((short)-12));
+    }
+
+    @Test
+    public void longKey() throws Exception {
+        assertEquals(Long.MAX_VALUE, roundTrip(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void bytesKey() throws Exception {
+        byte[] key = new byte[] { 0, 1, (byte)0x7f, (byte)0x80, (byte)0xff };
+
+        assertArrayEquals(key, (byte[])roundTrip(key));
+    }
+
+    @Test
+    public void uuidKey() throws Exception {
+        UUID key = UUID.randomUUID();
+
+        assertEquals(key, roundTrip(key));
+    }
+
+    @Test
+    public void stringKey() throws Exception {
+        // Properties files escape separators and non ASCII characters.
+
+        String key = "key: with = separators\tand \u00e9";
+
+        assertEquals(key, roundTrip(key));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedKey() throws Exception {
+        roundTrip(1.5);
+    }
+
+    @Test(expected = IOException.class)
+    public void unknownClass() throws Exception {
+        try (OutputStream os = new FileOutputStream(file)) {
+            os.write("parts=1\npart.0.class=nl.gmt.data.migrator.test.Missing\npart.0.rows=0\npart.0.done=false\n".getBytes("ISO-8859-1"));
+        }
+
+        Checkpoint.load(file, schema);
+    }
+
+    private Object roundTrip(Object key) throws Exception {
+        Checkpoint checkpoint = Checkpoint.create(file, Arrays.asList(new TransferPart(schema.getClasses().get("Address"))));
+
+        checkpoint.update(checkpoint.getParts().get(0), key, 1, false);
+
+        checkpoint = Checkpoint.load(file, schema);
+
+        Object result = checkpoint.getLastKey(checkpoint.getParts().get(0));
+
+        if (!(key instanceof byte[])) {
+            assertSame(key.getClass(), result.getClass());
+        }
+
+        return result;
+    }
+}
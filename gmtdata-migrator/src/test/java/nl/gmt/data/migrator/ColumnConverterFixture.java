@@ -0,0 +1,190 @@
+package nl.gmt.data.migrator;
+
+import nl.gmt.data.drivers.MySqlDatabaseDriver;
+import nl.gmt.data.drivers.PostgresDatabaseDriver;
+import nl.gmt.data.drivers.SqlServerDatabaseDriver;
+import nl.gmt.data.schema.Schema;
+import nl.gmt.data.schema.SchemaField;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class ColumnConverterFixture {
+    private static Schema schema;
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        schema = TestSchema.load();
+    }
+
+    @Test
+    public void mySqlPlan() {
+        DbLoader loader = DbLoader.fromDriver(new MySqlDatabaseDriver(), schema, schema.getClasses().get("Address"));
+
+        assertSame(ColumnConverter.INTEGER, getConverter(loader, "Id"));
+        assertSame(ColumnConverter.STRING, getConverter(loader, "Street"));
+        assertSame(ColumnConverter.SHORT, getConverter(loader, "HouseNumber"));
+        assertSame(ColumnConverter.BOOLEAN, getConverter(loader, "Active"));
+        assertDefault(getConverter(loader, "Latitude"));
+
+        // Foreign keys take the type of the key of the parent.
+
+        assertSame(ColumnConverter.BINARY_UUID, getConverter(loader, "Relation"));
+
+        loader = DbLoader.fromDriver(new MySqlDatabaseDriver(), schema, schema.getClasses().get("Relation"));
+
+        assertSame(ColumnConverter.BINARY_UUID, getConverter(loader, "Id"));
+        assertSame(ColumnConverter.BYTES, getConverter(loader, "Picture"));
+    }
+
+    @Test
+    public void postgresPlan() {
+        DbLoader loader = DbLoader.fromDriver(new PostgresDatabaseDriver(), schema, schema.getClasses().get("Relation"));
+
+        // The driver maps UUIDs natively.
+
+        assertDefault(getConverter(loader, "Id"));
+        assertSame(ColumnConverter.STRING, getConverter(loader, "Name"));
+        assertSame(ColumnConverter.BYTES, getConverter(loader, "Picture"));
+    }
+
+    @Test
+    public void sqlServerPlan() {
+        DbLoader loader = DbLoader.fromDriver(new SqlServerDatabaseDriver(), schema, schema.getClasses().get("Address"));
+
+        assertSame(ColumnConverter.INTEGER, getConverter(loader, "Id"));
+        assertSame(ColumnConverter.STRING, getConverter(loader, "Relation"));
+        assertDefault(getConverter(loader, "Latitude"));
+    }
+
+    @Test
+    public void binaryUuid() throws Exception {
+        UUID uuid = UUID.fromString("00112233-4455-6677-8899-aabbccddeeff");
+
+        Object[] parameter = new Object[1];
+
+        ColumnConverter.BINARY_UUID.bind(createStatement(parameter), 1, uuid);
+
+        // Most significant bits first, so the binary values sort like the UUIDs.
+
+        byte[] bytes = (byte[])parameter[0];
+
+        assertEquals(16, bytes.length);
+        assertEquals(0x00, bytes[0]);
+        assertEquals((byte)0xff, bytes[15]);
+
+        assertEquals(uuid, ColumnConverter.BINARY_UUID.read(createResultSet(bytes), 1));
+
+        ColumnConverter.BINARY_UUID.bind(createStatement(parameter), 1, uuid.toString());
+
+        assertArrayEquals(bytes, (byte[])parameter[0]);
+
+        assertNull(ColumnConverter.BINARY_UUID.read(createResultSet(null), 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void binaryUuidLength() throws Exception {
+        ColumnConverter.BINARY_UUID.read(createResultSet(new byte[8]), 1);
+    }
+
+    @Test
+    public void nullIntegers() throws Exception {
+        assertNull(ColumnConverter.INTEGER.read(createResultSet(null), 1));
+        assertNull(ColumnConverter.SHORT.read(createResultSet(null), 1));
+        assertNull(ColumnConverter.LONG.read(createResultSet(null), 1));
+        assertNull(ColumnConverter.BOOLEAN.read(createResultSet(null), 1));
+
+        assertEquals(0, ColumnConverter.INTEGER.read(createResultSet(0), 1));
+        assertEquals((short)0, ColumnConverter.SHORT.read(createResultSet(0), 1));
+        assertEquals(0L, ColumnConverter.LONG.read(createResultSet(0), 1));
+    }
+
+    private static ColumnConverter getConverter(DbLoader loader, String name) {
+        if (name.equals("Id")) {
+            return loader.converters[0];
+        }
+
+        for (int i = 0; i < loader.schemaFields.size(); i++) {
+            SchemaField field = loader.schemaFields.get(i);
+
+            if (field.getName().equals(name)) {
+                return loader.converters[i + 1];
+            }
+        }
+
+        throw new IllegalArgumentException(name);
+    }
+
+    private static void assertDefault(ColumnConverter converter) {
+        assertNotSame(ColumnConverter.INTEGER, converter);
+        assertNotSame(ColumnConverter.SHORT, converter);
+        assertNotSame(ColumnConverter.LONG, converter);
+        assertNotSame(ColumnConverter.BOOLEAN, converter);
+        assertNotSame(ColumnConverter.STRING, converter);
+        assertNotSame(ColumnConverter.BYTES, converter);
+        assertNotSame(ColumnConverter.BINARY_UUID, converter);
+    }
+
+    private static PreparedStatement createStatement(final Object[] parameter) {
+        return (PreparedStatement)Proxy.newProxyInstance(
+            ColumnConverterFixture.class.getClassLoader(),
+            new Class<?>[] { PreparedStatement.class },
+            new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    switch (method.getName()) {
+                        case "setBytes":
+                            parameter[0] = args[1];
+                            return null;
+                        case "setNull":
+                            parameter[0] = null;
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                }
+            }
+        );
+    }
+
+    private static ResultSet createResultSet(final Object value) {
+        // Mimics the JDBC drivers, which return zero for null numeric columns.
+
+        return (ResultSet)Proxy.newProxyInstance(
+            ColumnConverterFixture.class.getClassLoader(),
+            new Class<?>[] { ResultSet.class },
+            new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    switch (method.getName()) {
+                        case "getBytes":
+                            return value;
+                        case "getInt":
+                            return 0;
+                        case "getShort":
+                            return (short)0;
+                        case "getLong":
+                            return 0L;
+                        case "getBoolean":
+                            return false;
+                        case "wasNull":
+                            return value == null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                }
+            }
+        );
+    }
+}
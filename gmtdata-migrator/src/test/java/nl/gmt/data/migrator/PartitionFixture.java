@@ -0,0 +1,105 @@
+package nl.gmt.data.migrator;
+
+import nl.gmt.data.schema.Schema;
+import nl.gmt.data.schema.SchemaClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class PartitionFixture {
+    private static SchemaClass klass;
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        Schema schema = TestSchema.load();
+
+        klass = schema.getClasses().get("Address");
+    }
+
+    @Test
+    public void evenRange() {
+        List<TransferPart> parts = Transferer.splitRange(klass, 100, 25, 1, 100);
+
+        assertEquals(4, parts.size());
+        assertRanges(parts, 1, 101);
+    }
+
+    @Test
+    public void unevenRange() {
+        List<TransferPart> parts = Transferer.splitRange(klass, 10, 3, 1, 10);
+
+        assertEquals(4, parts.size());
+        assertRanges(parts, 1, 11);
+    }
+
+    @Test
+    public void sparseKeys() {
+        // Fewer rows than keys still gives a part per partition size rows.
+
+        List<TransferPart> parts = Transferer.splitRange(klass, 10, 5, -1000, 1000);
+
+        assertEquals(2, parts.size());
+        assertRanges(parts, -1000, 1001);
+    }
+
+    @Test
+    public void singleKey() {
+        // More rows than keys can't happen with unique keys, but mustn't loop forever.
+
+        List<TransferPart> parts = Transferer.splitRange(klass, 10, 1, 5, 5);
+
+        assertEquals(1, parts.size());
+        assertRanges(parts, 5, 6);
+    }
+
+    @Test
+    public void fullRange() {
+        long min = Long.MIN_VALUE;
+        long max = Long.MAX_VALUE - 1;
+
+        assertFalse(Transferer.isSplittable(min, max));
+        assertFalse(Transferer.isSplittable(0, Long.MAX_VALUE));
+        assertTrue(Transferer.isSplittable(Long.MIN_VALUE, -1));
+        assertTrue(Transferer.isSplittable(0, Long.MAX_VALUE - 1));
+    }
+
+    @Test
+    public void largeRange() {
+        List<TransferPart> parts = Transferer.splitRange(klass, 1000, 100, 0, Long.MAX_VALUE - 1);
+
+        assertEquals(10, parts.size());
+        assertRanges(parts, 0, Long.MAX_VALUE);
+
+        parts = Transferer.splitRange(klass, 1000, 100, Long.MIN_VALUE, -1);
+
+        assertEquals(10, parts.size());
+        assertRanges(parts, Long.MIN_VALUE, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void overflowingRange() {
+        Transferer.splitRange(klass, 1000, 100, -1, Long.MAX_VALUE);
+    }
+
+    private static void assertRanges(List<TransferPart> parts, long lower, long upper) {
+        // The parts must be adjacent and cover the whole key range.
+
+        long expected = lower;
+
+        for (TransferPart part : parts) {
+            assertTrue(part.isPartitioned());
+            assertEquals(expected, (long)part.getLowerBound());
+            assertTrue(part.getUpperBound() > part.getLowerBound());
+
+            expected = part.getUpperBound();
+        }
+
+        assertEquals(upper, expected);
+    }
+}
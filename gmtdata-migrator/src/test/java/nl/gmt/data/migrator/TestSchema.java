@@ -0,0 +1,29 @@
+package nl.gmt.data.migrator;
+
+import nl.gmt.data.migrate.SqlStatement;
+import nl.gmt.data.schema.Schema;
+import nl.gmt.data.schema.SchemaCallback;
+import nl.gmt.data.schema.SchemaException;
+import nl.gmt.data.schema.SchemaParserExecutor;
+
+import java.io.InputStream;
+
+class TestSchema {
+    private TestSchema() {
+    }
+
+    public static Schema load() throws SchemaException {
+        SchemaParserExecutor executor = new SchemaParserExecutor(new SchemaCallback() {
+            @Override
+            public InputStream loadFile(String schema) throws Exception {
+                return TestSchema.class.getResourceAsStream(schema);
+            }
+
+            @Override
+            public void serializeSql(Iterable<SqlStatement> statements) {
+            }
+        });
+
+        return executor.parse("Transfer.schema", GenericSchemaRules.INSTANCE);
+    }
+}
@@ -3,7 +3,6 @@ package nl.gmt;
 import nl.gmt.data.DataException;
 import nl.gmt.data.DbConfiguration;
 import nl.gmt.data.DbType;
-import nl.gmt.data.drivers.SQLiteDriver;
 import nl.gmt.data.migrate.SchemaMigrateException;
 import nl.gmt.data.schema.SchemaException;
 import nl.gmt.data.superModule.DbConnection;
@@ -22,9 +21,8 @@ public class MigrateFixture {
 
         new File(path).getParentFile().mkdirs();
 
-        SQLiteDriver.setPragma("journal_mode", "TRUNCATE");
-
         DbConfiguration cfg = new DbConfiguration();
+        cfg.setSQLitePragma("journal_mode", "TRUNCATE");
         cfg.setConnectionString("jdbc:sqlite:" + path);
         cfg.setType(DbType.SQLITE);
 
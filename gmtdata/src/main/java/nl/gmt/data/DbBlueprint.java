@@ -0,0 +1,45 @@
+package nl.gmt.data;
+
+import nl.gmt.data.schema.Schema;
+import org.apache.commons.lang.Validate;
+
+public class DbBlueprint<T extends EntitySchema> {
+    private final DbType type;
+    private final String schemaName;
+    private final Schema schema;
+    private final T entitySchema;
+
+    DbBlueprint(DbType type, String schemaName, Schema schema, T entitySchema) {
+        Validate.notNull(type, "type");
+        Validate.notNull(schemaName, "schemaName");
+        Validate.notNull(schema, "schema");
+        Validate.notNull(entitySchema, "entitySchema");
+
+        this.type = type;
+        this.schemaName = schemaName;
+        this.schema = schema;
+        this.entitySchema = entitySchema;
+
+        for (EntityType entityType : entitySchema.getEntityTypes()) {
+            for (EntityField field : entityType.getFields()) {
+                field.resolve(entitySchema);
+            }
+        }
+    }
+
+    public DbType getType() {
+        return type;
+    }
+
+    public String getSchemaName() {
+        return schemaName;
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    public T getEntitySchema() {
+        return entitySchema;
+    }
+}
@@ -0,0 +1,303 @@
+package nl.gmt.data;
+
+import nl.gmt.data.support.Delegate;
+import nl.gmt.data.support.DelegateListener;
+import org.apache.commons.lang.Validate;
+import org.hibernate.*;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.jboss.logging.Logger;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+public class DbBulkContext implements DataCloseable {
+    private static final Logger LOG = Logger.getLogger(DbBulkContext.class);
+
+    private final Transaction tx;
+    private final DbConnection db;
+    private final DbTenant tenant;
+    private StatelessSession session;
+    private DbContextState state;
+    private final Delegate<DbContextTransition> transitioned = new Delegate<>();
+    private boolean closed;
+    private Map<Class<?>, Repository> repositories;
+    private Map<String, Set<Serializable>> evicted;
+
+    DbBulkContext(DbConnection db, DbTenant tenant) {
+        Validate.notNull(db, "db");
+
+        this.db = db;
+        this.tenant = tenant;
+
+        state = DbContextState.UNKNOWN;
+
+        raiseTransitioned(DbContextTransition.OPENING);
+
+        try {
+            if (tenant != null) {
+                session = db.getSessionFactory().withStatelessOptions().tenantIdentifier(tenant.getDatabase()).openStatelessSession();
+            } else {
+                session = db.getSessionFactory().openStatelessSession();
+            }
+
+            tx = session.beginTransaction();
+
+            raiseTransitioned(DbContextTransition.OPENED);
+        } catch (Throwable e) {
+            try {
+                close();
+            } catch (Exception e1) {
+                e = new RuntimeException(e1);
+            }
+
+            if (!(e instanceof RuntimeException)) {
+                e = new RuntimeException(e);
+            }
+
+            throw (RuntimeException)e;
+        }
+    }
+
+    public DbConnection getConnection() {
+        return db;
+    }
+
+    public DbTenant getTenant() {
+        return tenant;
+    }
+
+    private void raiseTransitioned(DbContextTransition transition) {
+        db.raiseContextTransitioned(this, transition);
+
+        transitioned.call(this, transition);
+    }
+
+    public void addTransitioned(DelegateListener<DbContextTransition> listener) {
+        transitioned.add(listener);
+    }
+
+    public boolean removeTransitioned(DelegateListener<DbContextTransition> listener) {
+        return transitioned.remove(listener);
+    }
+
+    public StatelessSession getSession() {
+        return session;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public DbContextState getState() {
+        return state;
+    }
+
+    public void commit() {
+        if (state == DbContextState.UNKNOWN) {
+            state = DbContextState.COMMITTED;
+        }
+    }
+
+    public void abort() {
+        state = DbContextState.ABORTED;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends Repository> T getRepository(Class<T> repositoryClass) {
+        // Repositories are bound to the context, so they're created once per context.
+
+        if (repositories == null) {
+            repositories = new HashMap<>();
+        }
+
+        T repository = (T)repositories.get(repositoryClass);
+
+        if (repository == null) {
+            RepositoryService repositoryService = db.getRepositoryService();
+
+            if (repositoryService == null) {
+                throw new IllegalStateException("Repository service is not available");
+            }
+
+            repository = repositoryService.getRepository(repositoryClass);
+
+            repository.setBulkContext(this);
+
+            repositories.put(repositoryClass, repository);
+        }
+
+        return repository;
+    }
+
+    public void flush() {
+        // When JDBC batching is configured, writes are batched per statement. The pending batch
+        // is executed by the next query or on commit; this forces it out, e.g. to get
+        // constraint violations early.
+
+        ((SessionImplementor)session).getJdbcCoordinator().executeBatch();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        boolean aborted = false;
+
+        try {
+            if (session != null) {
+                try {
+                    if (state == DbContextState.UNKNOWN) {
+                        LOG.warn("Aborting transaction because it was not committed or rolled back");
+                        state = DbContextState.ABORTED;
+                        aborted = true;
+                    }
+
+                    raiseTransitioned(DbContextTransition.CLOSING);
+
+                    boolean success = false;
+
+                    try {
+                        if (state == DbContextState.COMMITTED) {
+                            flush();
+                            tx.commit();
+                            success = true;
+
+                            evictCommitted();
+                        }
+                    } finally {
+                        if (!success && tx != null) {
+                            tx.rollback();
+                        }
+                    }
+                } finally {
+                    session.close();
+                    session = null;
+                }
+            }
+        } finally {
+            raiseTransitioned(DbContextTransition.CLOSED);
+        }
+
+        closed = true;
+
+        if (aborted && DbContext.isThrowExceptionOnAbort()) {
+            throw new DbContextAbortedException("Aborting transaction because it was not committed or rolled back");
+        }
+    }
+
+    public Serializable insert(Entity entity) {
+        return session.insert(entity);
+    }
+
+    public Serializable insert(String entityName, Entity entity) {
+        return session.insert(entityName, entity);
+    }
+
+    public void update(Entity entity) {
+        session.update(entity);
+
+        evict(null, entity);
+    }
+
+    public void update(String entityName, Entity entity) {
+        session.update(entityName, entity);
+
+        evict(entityName, entity);
+    }
+
+    public void delete(Entity entity) {
+        session.delete(entity);
+
+        evict(null, entity);
+    }
+
+    public void delete(String entityName, Entity entity) {
+        session.delete(entityName, entity);
+
+        evict(entityName, entity);
+    }
+
+    private void evict(String entityName, Entity entity) {
+        // Stateless sessions bypass the second level cache, so entities written here are
+        // evicted from it. A context may load the old state into the cache again before this
+        // transaction commits, so they're evicted once more after the commit.
+
+        SessionImplementor sessionImplementor = (SessionImplementor)session;
+        EntityPersister persister = sessionImplementor.getEntityPersister(entityName, entity);
+
+        if (!persister.hasCache()) {
+            return;
+        }
+
+        Serializable id = persister.getIdentifier(entity, sessionImplementor);
+
+        sessionImplementor.getFactory().getCache().evictEntity(persister.getEntityName(), id);
+
+        if (evicted == null) {
+            evicted = new HashMap<>();
+        }
+
+        Set<Serializable> ids = evicted.get(persister.getEntityName());
+        if (ids == null) {
+            ids = new HashSet<>();
+            evicted.put(persister.getEntityName(), ids);
+        }
+
+        ids.add(id);
+    }
+
+    private void evictCommitted() {
+        if (evicted == null) {
+            return;
+        }
+
+        Cache cache = ((SessionImplementor)session).getFactory().getCache();
+
+        for (Map.Entry<String, Set<Serializable>> entry : evicted.entrySet()) {
+            for (Serializable id : entry.getValue()) {
+                cache.evictEntity(entry.getKey(), id);
+            }
+        }
+
+        evicted = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends Entity> T get(Class<T> clazz, Serializable id) {
+        return (T)session.get(clazz, id);
+    }
+
+    public Entity get(String entityName, Serializable id) {
+        return (Entity)session.get(entityName, id);
+    }
+
+    public void refresh(Entity entity) {
+        session.refresh(entity);
+    }
+
+    public <T> DbQuery<T> createQuery(String queryString) {
+        return new DbQuery<T>(session.createQuery(queryString), null, db.getDriver().getStreamingFetchSize());
+    }
+
+    public Criteria createCriteria(Class persistentClass) {
+        return session.createCriteria(persistentClass);
+    }
+
+    public Criteria createCriteria(Class persistentClass, String alias) {
+        return session.createCriteria(persistentClass, alias);
+    }
+
+    public Criteria createCriteria(String entityName) {
+        return session.createCriteria(entityName);
+    }
+
+    public Criteria createCriteria(String entityName, String alias) {
+        return session.createCriteria(entityName, alias);
+    }
+}
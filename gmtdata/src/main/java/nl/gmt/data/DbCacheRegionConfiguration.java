@@ -0,0 +1,30 @@
+package nl.gmt.data;
+
+public class DbCacheRegionConfiguration {
+    private int maxEntries = -1;
+    private int timeToLive = -1;
+
+    public DbCacheRegionConfiguration() {
+    }
+
+    public DbCacheRegionConfiguration(int maxEntries, int timeToLive) {
+        this.maxEntries = maxEntries;
+        this.timeToLive = timeToLive;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public int getTimeToLive() {
+        return timeToLive;
+    }
+
+    public void setTimeToLive(int timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+}
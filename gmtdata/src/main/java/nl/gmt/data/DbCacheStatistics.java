@@ -0,0 +1,52 @@
+package nl.gmt.data;
+
+import org.apache.commons.lang.Validate;
+
+public class DbCacheStatistics {
+    private final String region;
+    private final long hitCount;
+    private final long missCount;
+    private final long putCount;
+    private final long elementCount;
+
+    public DbCacheStatistics(String region, long hitCount, long missCount, long putCount, long elementCount) {
+        Validate.notNull(region, "region");
+
+        this.region = region;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+        this.elementCount = elementCount;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getPutCount() {
+        return putCount;
+    }
+
+    public long getElementCount() {
+        return elementCount;
+    }
+
+    public double getHitRatio() {
+        long total = hitCount + missCount;
+
+        return total == 0 ? 0 : (double)hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d hits, %d misses (%.1f%%), %d elements", region, hitCount, missCount, getHitRatio() * 100, elementCount);
+    }
+}
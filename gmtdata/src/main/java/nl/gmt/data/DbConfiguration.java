@@ -1,13 +1,43 @@
 package nl.gmt.data;
 
+import nl.gmt.data.pool.ConnectionPoolProvider;
+import org.apache.commons.lang.Validate;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
 public class DbConfiguration {
+    public static final int DEFAULT_CONNECTION_POOL_MAX_SIZE = 15;
+
     private String connectionString;
+    private String replicaConnectionString;
     private DbType type;
     private RepositoryService repositoryService;
     private boolean enableMultiTenancy;
+    private DbTenantIsolation tenantIsolation;
     private OnResolveMessage messageResolver;
     private int connectionPoolMinSize = -1;
     private int connectionPoolMaxSize = -1;
+    private ConnectionPoolProvider connectionPoolProvider;
+    private int connectionPoolAcquireTimeoutMillis = -1;
+    private int connectionPoolIdleTimeoutSeconds = -1;
+    private int connectionValidationTimeoutSeconds = -1;
+    private int statementCacheSize = -1;
+    private int jdbcBatchSize = -1;
+    private ExecutorService asyncExecutor;
+    private int asyncConcurrency = -1;
+    private DbSQLiteConcurrency sqliteConcurrency;
+    private int sqliteBusyTimeout = -1;
+    private DbSQLiteProfile sqliteProfile;
+    private final Map<String, String> sqlitePragmas = new LinkedHashMap<>();
+    private boolean enableSecondLevelCache;
+    private boolean enableQueryCache;
+    private boolean enableMySqlCursorFetch;
+    private String cacheRegionFactory;
+    private DbCacheRegionConfiguration defaultCacheRegion = new DbCacheRegionConfiguration();
+    private final Map<String, DbCacheRegionConfiguration> cacheRegions = new HashMap<>();
 
     public String getConnectionString() {
         return connectionString;
@@ -17,6 +47,14 @@ public class DbConfiguration {
         this.connectionString = connectionString;
     }
 
+    public String getReplicaConnectionString() {
+        return replicaConnectionString;
+    }
+
+    public void setReplicaConnectionString(String replicaConnectionString) {
+        this.replicaConnectionString = replicaConnectionString;
+    }
+
     public DbType getType() {
         return type;
     }
@@ -33,6 +71,14 @@ public class DbConfiguration {
         this.enableMultiTenancy = enableMultiTenancy;
     }
 
+    public DbTenantIsolation getTenantIsolation() {
+        return tenantIsolation;
+    }
+
+    public void setTenantIsolation(DbTenantIsolation tenantIsolation) {
+        this.tenantIsolation = tenantIsolation;
+    }
+
     public OnResolveMessage getMessageResolver() {
         return messageResolver;
     }
@@ -60,4 +106,150 @@ public class DbConfiguration {
     public void setConnectionPoolMaxSize(int connectionPoolMaxSize) {
         this.connectionPoolMaxSize = connectionPoolMaxSize;
     }
+
+    public ConnectionPoolProvider getConnectionPoolProvider() {
+        return connectionPoolProvider;
+    }
+
+    public void setConnectionPoolProvider(ConnectionPoolProvider connectionPoolProvider) {
+        this.connectionPoolProvider = connectionPoolProvider;
+    }
+
+    public int getConnectionPoolAcquireTimeoutMillis() {
+        return connectionPoolAcquireTimeoutMillis;
+    }
+
+    public void setConnectionPoolAcquireTimeoutMillis(int connectionPoolAcquireTimeoutMillis) {
+        this.connectionPoolAcquireTimeoutMillis = connectionPoolAcquireTimeoutMillis;
+    }
+
+    public int getConnectionPoolIdleTimeoutSeconds() {
+        return connectionPoolIdleTimeoutSeconds;
+    }
+
+    public void setConnectionPoolIdleTimeoutSeconds(int connectionPoolIdleTimeoutSeconds) {
+        this.connectionPoolIdleTimeoutSeconds = connectionPoolIdleTimeoutSeconds;
+    }
+
+    public int getConnectionValidationTimeoutSeconds() {
+        return connectionValidationTimeoutSeconds;
+    }
+
+    public void setConnectionValidationTimeoutSeconds(int connectionValidationTimeoutSeconds) {
+        this.connectionValidationTimeoutSeconds = connectionValidationTimeoutSeconds;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public int getJdbcBatchSize() {
+        return jdbcBatchSize;
+    }
+
+    public void setJdbcBatchSize(int jdbcBatchSize) {
+        this.jdbcBatchSize = jdbcBatchSize;
+    }
+
+    public ExecutorService getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    public void setAsyncExecutor(ExecutorService asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    public int getAsyncConcurrency() {
+        return asyncConcurrency;
+    }
+
+    public void setAsyncConcurrency(int asyncConcurrency) {
+        this.asyncConcurrency = asyncConcurrency;
+    }
+
+    public DbSQLiteConcurrency getSQLiteConcurrency() {
+        return sqliteConcurrency;
+    }
+
+    public void setSQLiteConcurrency(DbSQLiteConcurrency sqliteConcurrency) {
+        this.sqliteConcurrency = sqliteConcurrency;
+    }
+
+    public int getSQLiteBusyTimeout() {
+        return sqliteBusyTimeout;
+    }
+
+    public void setSQLiteBusyTimeout(int sqliteBusyTimeout) {
+        this.sqliteBusyTimeout = sqliteBusyTimeout;
+    }
+
+    public DbSQLiteProfile getSQLiteProfile() {
+        return sqliteProfile;
+    }
+
+    public void setSQLiteProfile(DbSQLiteProfile sqliteProfile) {
+        this.sqliteProfile = sqliteProfile;
+    }
+
+    public Map<String, String> getSQLitePragmas() {
+        return sqlitePragmas;
+    }
+
+    public void setSQLitePragma(String pragma, String value) {
+        Validate.notNull(pragma, "pragma");
+
+        if (value == null) {
+            sqlitePragmas.remove(pragma);
+        } else {
+            sqlitePragmas.put(pragma, value);
+        }
+    }
+
+    public boolean isEnableSecondLevelCache() {
+        return enableSecondLevelCache;
+    }
+
+    public void setEnableSecondLevelCache(boolean enableSecondLevelCache) {
+        this.enableSecondLevelCache = enableSecondLevelCache;
+    }
+
+    public boolean isEnableQueryCache() {
+        return enableQueryCache;
+    }
+
+    public void setEnableQueryCache(boolean enableQueryCache) {
+        this.enableQueryCache = enableQueryCache;
+    }
+
+    public boolean isEnableMySqlCursorFetch() {
+        return enableMySqlCursorFetch;
+    }
+
+    public void setEnableMySqlCursorFetch(boolean enableMySqlCursorFetch) {
+        this.enableMySqlCursorFetch = enableMySqlCursorFetch;
+    }
+
+    public String getCacheRegionFactory() {
+        return cacheRegionFactory;
+    }
+
+    public void setCacheRegionFactory(String cacheRegionFactory) {
+        this.cacheRegionFactory = cacheRegionFactory;
+    }
+
+    public DbCacheRegionConfiguration getDefaultCacheRegion() {
+        return defaultCacheRegion;
+    }
+
+    public void setDefaultCacheRegion(DbCacheRegionConfiguration defaultCacheRegion) {
+        this.defaultCacheRegion = defaultCacheRegion;
+    }
+
+    public Map<String, DbCacheRegionConfiguration> getCacheRegions() {
+        return cacheRegions;
+    }
 }
@@ -1,9 +1,14 @@
 package nl.gmt.data;
 
 import nl.gmt.data.drivers.*;
+import nl.gmt.data.hibernate.cache.LocalRegion;
+import nl.gmt.data.hibernate.cache.LocalRegionFactory;
 import nl.gmt.data.migrate.*;
+import nl.gmt.data.pool.ConnectionPool;
+import nl.gmt.data.pool.LocalConnectionPoolProvider;
 import nl.gmt.data.schema.Schema;
 import nl.gmt.data.schema.SchemaCallback;
+import nl.gmt.data.schema.SchemaClass;
 import nl.gmt.data.schema.SchemaParserExecutor;
 import nl.gmt.data.support.Delegate;
 import nl.gmt.data.support.DelegateListener;
@@ -17,7 +22,13 @@ import org.hibernate.boot.registry.StandardServiceRegistry;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
 import org.hibernate.boot.spi.MetadataBuilderImplementor;
 import org.hibernate.boot.spi.MetadataBuildingOptions;
+import org.hibernate.cache.spi.RegionFactory;
 import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.service.spi.ServiceRegistryImplementor;
+import org.hibernate.service.spi.Wrapped;
 import org.jboss.logging.Logger;
 
 import java.io.InputStream;
@@ -25,8 +36,12 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class DbConnection<T extends EntitySchema> implements DataCloseable {
     private static final Logger LOG = Logger.getLogger(DbConnection.class);
@@ -45,15 +60,36 @@ public abstract class DbConnection<T extends EntitySchema> implements DataClosea
     private SessionFactory sessionFactory;
     private final Delegate<DbContextTransition> contextTransitioned = new Delegate<>();
     private final RepositoryService repositoryService;
+    private final DbBlueprint<T> blueprint;
     private final T entitySchema;
     private final DbEntityUsageManager<T> usageManager;
     private final DbConfiguration.OnResolveMessage messageResolver;
+    private final DbTenantIsolation tenantIsolation;
+    private ConnectionPool replicaPool;
+    private String replicaDefaultDatabase;
+    private ExecutorService asyncExecutor;
+    private final boolean ownsAsyncExecutor;
+    private final int asyncConcurrency;
+    private final Semaphore asyncPermits;
     private boolean closed;
 
-    @SuppressWarnings("unchecked")
     protected DbConnection(DbConfiguration configuration, String schemaName, RepositoryService repositoryService) throws DataException {
+        this(configuration, schemaName, null, repositoryService);
+    }
+
+    protected DbConnection(DbConfiguration configuration, DbBlueprint<T> blueprint, RepositoryService repositoryService) throws DataException {
+        this(configuration, null, blueprint, repositoryService);
+    }
+
+    @SuppressWarnings("unchecked")
+    private DbConnection(DbConfiguration configuration, String schemaName, DbBlueprint<T> blueprint, RepositoryService repositoryService) throws DataException {
         Validate.notNull(configuration, "configuration");
-        Validate.notNull(schemaName, "schemaName");
+
+        if (blueprint != null) {
+            schemaName = blueprint.getSchemaName();
+        } else {
+            Validate.notNull(schemaName, "schemaName");
+        }
 
         this.connectionString = configuration.getConnectionString();
 
@@ -70,6 +106,16 @@ public abstract class DbConnection<T extends EntitySchema> implements DataClosea
         this.repositoryService = repositoryService;
         this.messageResolver = configuration.getMessageResolver();
 
+        // Tenants are switched with setCatalog unless configured otherwise. Postgres can't
+        // switch databases on a connection, so tenants there can be schemas with SEARCH_PATH.
+
+        DbTenantIsolation tenantIsolation = configuration.getTenantIsolation();
+        if (tenantIsolation == null) {
+            tenantIsolation = DbTenantIsolation.CATALOG;
+        }
+
+        this.tenantIsolation = tenantIsolation;
+
         switch (type) {
             case SQLITE: driver = new SQLiteDatabaseDriver(); break;
             case MYSQL: driver = new MySqlDatabaseDriver(); break;
@@ -78,17 +124,27 @@ public abstract class DbConnection<T extends EntitySchema> implements DataClosea
             default: throw new DataException("Illegal database type");
         }
 
-        SchemaParserExecutor parserExecutor = new SchemaParserExecutor(new SchemaCallbackImpl());
+        // Connections created from a blueprint share the parsed schema and the entity types
+        // with the connection the blueprint was taken from.
 
-        Schema schema;
+        if (blueprint == null) {
+            SchemaParserExecutor parserExecutor = new SchemaParserExecutor(new SchemaCallbackImpl());
 
-        try {
-            schema = parserExecutor.parse(schemaName, driver.createSchemaRules());
-        } catch (Throwable e) {
-            throw new DataException("Cannot load schema", e);
+            Schema schema;
+
+            try {
+                schema = parserExecutor.parseCompiled(schemaName, driver.createSchemaRules());
+            } catch (Throwable e) {
+                throw new DataException("Cannot load schema", e);
+            }
+
+            blueprint = new DbBlueprint<>(type, schemaName, schema, createEntitySchema(schema));
+        } else if (blueprint.getType() != type) {
+            throw new DataException(String.format("Blueprint was created for database type '%s'", blueprint.getType()));
         }
 
-        entitySchema = createEntitySchema(schema);
+        this.blueprint = blueprint;
+        entitySchema = blueprint.getEntitySchema();
 
         StandardServiceRegistryBuilder serviceRegistryBuilder = new StandardServiceRegistryBuilder()
             .applySetting(AvailableSettings.DIALECT, driver.getDialectType())
@@ -98,9 +154,20 @@ public abstract class DbConnection<T extends EntitySchema> implements DataClosea
         if (configuration.isEnableMultiTenancy()) {
             serviceRegistryBuilder
                 .applySetting(AvailableSettings.MULTI_TENANT_CONNECTION_PROVIDER, DbMultiTenantConnectionProvider.class.getName())
-                .applySetting(AvailableSettings.MULTI_TENANT, "SCHEMA");
+                .applySetting(AvailableSettings.MULTI_TENANT, "SCHEMA")
+                .applySetting(DbMultiTenantConnectionProvider.TENANT_ISOLATION, tenantIsolation.name());
         }
 
+        // Batching applies to every session and changes when constraint violations are
+        // reported, so it's only enabled when configured. Bulk contexts benefit most from it.
+
+        int jdbcBatchSize = configuration.getJdbcBatchSize();
+        if (jdbcBatchSize != -1) {
+            serviceRegistryBuilder.applySetting(AvailableSettings.STATEMENT_BATCH_SIZE, Integer.toString(jdbcBatchSize));
+        }
+
+        configureCache(serviceRegistryBuilder, configuration);
+
         driver.createConfiguration(serviceRegistryBuilder, configuration);
 
         createConfiguration(serviceRegistryBuilder);
@@ -148,15 +215,122 @@ public abstract class DbConnection<T extends EntitySchema> implements DataClosea
             .getSessionFactoryBuilder()
             .build();
 
+        if (configuration.getReplicaConnectionString() != null) {
+            createReplicaPool(configuration);
+        }
+
+        // Async work is limited to the size of the connection pool so tasks don't queue up
+        // inside the pool, where they would hold a thread while waiting for a connection.
+        // The default executor has exactly that many threads. A configured executor may have
+        // more, so there the tasks are limited with a semaphore.
+
+        int asyncConcurrency = configuration.getAsyncConcurrency();
+        if (asyncConcurrency == -1) {
+            asyncConcurrency = configuration.getConnectionPoolMaxSize() != -1 ? configuration.getConnectionPoolMaxSize() : DbConfiguration.DEFAULT_CONNECTION_POOL_MAX_SIZE;
+        }
+
+        this.asyncConcurrency = asyncConcurrency;
+        asyncExecutor = configuration.getAsyncExecutor();
+        ownsAsyncExecutor = asyncExecutor == null;
+        asyncPermits = ownsAsyncExecutor ? null : new Semaphore(asyncConcurrency, true);
+
         driver.configure(this);
 
-        for (EntityType entityType : entitySchema.getEntityTypes()) {
-            for (EntityField field : entityType.getFields()) {
-                field.resolve(entitySchema);
+        usageManager = new DbEntityUsageManager(this);
+    }
+
+    private void createReplicaPool(DbConfiguration configuration) throws DataException {
+        // Replica connections are handed to the session directly, so they always come from
+        // the built in pool, which also keeps them on the tenant they were last used for.
+
+        replicaPool = new LocalConnectionPoolProvider().createPool(
+            configuration.getReplicaConnectionString(),
+            driver.getConnectionType(),
+            configuration
+        );
+
+        if (configuration.isEnableMultiTenancy()) {
+            try (Connection connection = replicaPool.getConnection()) {
+                replicaDefaultDatabase = tenantIsolation.read(connection);
+            } catch (SQLException e) {
+                throw new DataException("Cannot get default database name of the replica", e);
             }
         }
+    }
 
-        usageManager = new DbEntityUsageManager(this);
+    public DbConnectionPoolStatistics getReplicaConnectionPoolStatistics() {
+        return replicaPool != null ? replicaPool.getStatistics() : null;
+    }
+
+    public DbConnectionPoolStatistics getConnectionPoolStatistics() {
+        ServiceRegistryImplementor serviceRegistry = ((SessionFactoryImplementor)sessionFactory).getServiceRegistry();
+
+        Wrapped connectionProvider = serviceRegistry.getService(ConnectionProvider.class);
+        if (connectionProvider == null) {
+            connectionProvider = serviceRegistry.getService(MultiTenantConnectionProvider.class);
+        }
+
+        if (connectionProvider == null || !connectionProvider.isUnwrappableAs(ConnectionPool.class)) {
+            return null;
+        }
+
+        return connectionProvider.unwrap(ConnectionPool.class).getStatistics();
+    }
+
+    private void configureCache(StandardServiceRegistryBuilder serviceRegistryBuilder, DbConfiguration configuration) {
+        // The second level cache must be disabled explicitly. Otherwise Hibernate fails
+        // on classes that have a cache strategy when no region factory is configured.
+
+        serviceRegistryBuilder
+            .applySetting(AvailableSettings.USE_SECOND_LEVEL_CACHE, Boolean.toString(configuration.isEnableSecondLevelCache()))
+            .applySetting(AvailableSettings.USE_QUERY_CACHE, Boolean.toString(configuration.isEnableSecondLevelCache() && configuration.isEnableQueryCache()));
+
+        if (!configuration.isEnableSecondLevelCache()) {
+            return;
+        }
+
+        String regionFactory = configuration.getCacheRegionFactory();
+        if (regionFactory == null) {
+            regionFactory = LocalRegionFactory.class.getName();
+        }
+
+        serviceRegistryBuilder.applySetting(AvailableSettings.CACHE_REGION_FACTORY, regionFactory);
+
+        DbCacheRegionConfiguration defaultRegion = configuration.getDefaultCacheRegion();
+
+        if (defaultRegion != null) {
+            if (defaultRegion.getMaxEntries() != -1) {
+                serviceRegistryBuilder.applySetting(LocalRegionFactory.MAX_ENTRIES, Integer.toString(defaultRegion.getMaxEntries()));
+            }
+            if (defaultRegion.getTimeToLive() != -1) {
+                serviceRegistryBuilder.applySetting(LocalRegionFactory.TIME_TO_LIVE, Integer.toString(defaultRegion.getTimeToLive()));
+            }
+        }
+
+        for (Map.Entry<String, DbCacheRegionConfiguration> entry : configuration.getCacheRegions().entrySet()) {
+            String prefix = LocalRegionFactory.REGION_PREFIX + entry.getKey() + ".";
+
+            if (entry.getValue().getMaxEntries() != -1) {
+                serviceRegistryBuilder.applySetting(prefix + "max_entries", Integer.toString(entry.getValue().getMaxEntries()));
+            }
+            if (entry.getValue().getTimeToLive() != -1) {
+                serviceRegistryBuilder.applySetting(prefix + "time_to_live", Integer.toString(entry.getValue().getTimeToLive()));
+            }
+        }
+    }
+
+    public List<DbCacheStatistics> getCacheStatistics() {
+        List<DbCacheStatistics> statistics = new ArrayList<>();
+
+        RegionFactory regionFactory = ((SessionFactoryImplementor)sessionFactory).getServiceRegistry().getService(RegionFactory.class);
+
+        if (regionFactory instanceof LocalRegionFactory) {
+            for (LocalRegion region : ((LocalRegionFactory)regionFactory).getRegions()) {
+                statistics.add(region.getStatistics());
+            }
+        }
+
+        return statistics;
     }
 
     private DbType detectType(String connectionString) {
@@ -193,6 +367,10 @@ public abstract class DbConnection<T extends EntitySchema> implements DataClosea
         return entitySchema;
     }
 
+    public DbBlueprint<T> getBlueprint() {
+        return blueprint;
+    }
+
     private void addClasses(MetadataSources sources) {
         for (EntityType entityType : entitySchema.getEntityTypes()) {
             sources.addAnnotatedClass(entityType.getModel());
@@ -206,6 +384,16 @@ public abstract class DbConnection<T extends EntitySchema> implements DataClosea
                 sessionFactory.close();
                 sessionFactory = null;
             }
+            if (replicaPool != null) {
+                replicaPool.close();
+                replicaPool = null;
+            }
+            synchronized (this) {
+                if (ownsAsyncExecutor && asyncExecutor != null) {
+                    asyncExecutor.shutdown();
+                    asyncExecutor = null;
+                }
+            }
 
             closed = true;
         }
@@ -216,53 +404,103 @@ public abstract class DbConnection<T extends EntitySchema> implements DataClosea
     }
 
     public void migrateDatabase(DbTenant tenant) throws DataException, SchemaMigrateException, SQLException {
-        LOG.info("Migrating database...");
+        migrateDatabase(tenant, false);
+    }
 
-        SchemaCallbackImpl callback = new SchemaCallbackImpl();
+    public void migrateDatabase(DbTenant tenant, boolean forceDiff) throws DataException, SchemaMigrateException, SQLException {
+        LOG.info("Migrating database...");
 
-        DataSchemaExecutor executor = new DataSchemaExecutor(
-            new DataSchemaExecutorConfiguration(
-                schemaName,
-                connectionString,
-                false,
-                driver
-            ),
-            callback
-        );
+        Schema schema = blueprint.getSchema();
+        boolean hasManifest = hasManifest(schema);
 
-        LOG.info("Finding schema differences");
+        try (Connection connection = driver.createConnection(connectionString)) {
+            if (tenant != null) {
+                tenantIsolation.switchTo(connection, tenant.getDatabase());
+            }
 
-        executor.execute();
+            // The manifest records the hash of the schema the database was last migrated to. When
+            // that matches the current schema, there's no need to read and diff the database schema.
 
-        List<SqlStatement> statements = new ArrayList<>();
-        for (SqlStatement statement : callback.statements) {
-            if (statement.getType() == SqlStatementType.STATEMENT) {
-                statements.add(statement);
+            if (hasManifest && !forceDiff && isManifestCurrent(connection, schema)) {
+                LOG.info("Schema is up to date");
+                return;
             }
-        }
 
-        if (statements.size() == 0) {
-            LOG.info("Schema is up to date");
-            return;
-        }
+            SchemaCallbackImpl callback = new SchemaCallbackImpl();
 
-        LOG.infof("Found %d differences; applying", statements.size());
+            DataSchemaExecutor executor = new DataSchemaExecutor(
+                new DataSchemaExecutorConfiguration(
+                    schemaName,
+                    connectionString,
+                    false,
+                    driver
+                ),
+                callback
+            );
 
-        try (Connection connection = driver.createConnection(connectionString)) {
-            if (tenant != null) {
-                connection.setCatalog(tenant.getDatabase());
+            LOG.info("Finding schema differences");
+
+            executor.execute(schema);
+
+            List<SqlStatement> statements = new ArrayList<>();
+            for (SqlStatement statement : callback.statements) {
+                if (statement.getType() == SqlStatementType.STATEMENT) {
+                    statements.add(statement);
+                }
             }
 
-            for (SqlStatement statement : statements) {
-                LOG.infof("Applying %s", statement.getValue());
+            if (statements.size() == 0) {
+                LOG.info("Schema is up to date");
+            } else {
+                LOG.infof("Found %d differences; applying", statements.size());
+
+                for (SqlStatement statement : statements) {
+                    LOG.infof("Applying %s", statement.getValue());
 
-                try (Statement stmt = connection.createStatement()) {
-                    stmt.execute(statement.getValue());
+                    try (Statement stmt = connection.createStatement()) {
+                        stmt.execute(statement.getValue());
+                    }
                 }
             }
+
+            if (hasManifest) {
+                driver.writeManifest(connection, new Manifest(Manifest.VERSION, schema.getSchemaHash()), schema);
+            }
         }
     }
 
+    private static boolean hasManifest(Schema schema) {
+        // The manifest is only maintained when the schema declares its table.
+
+        for (SchemaClass klass : schema.getClasses().values()) {
+            if (Manifest.TABLE_NAME.equalsIgnoreCase(klass.getResolvedDbName())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isManifestCurrent(Connection connection, Schema schema) {
+        Manifest manifest;
+
+        try {
+            manifest = driver.readManifest(connection);
+        } catch (SchemaMigrateException e) {
+            LOG.debug("Cannot read manifest", e);
+            return false;
+        }
+
+        // A manifest written by a different version of the migrator may describe the database
+        // differently, so only a matching version and schema hash can skip the diff.
+
+        return
+            manifest != null &&
+            Manifest.VERSION.equals(manifest.getVersion()) &&
+            schema.getSchemaHash() != null &&
+            schema.getSchemaHash().equals(manifest.getSchemaHash());
+    }
+
     public DbContext openContext() {
         return openContext(null);
     }
@@ -272,7 +510,130 @@ public abstract class DbConnection<T extends EntitySchema> implements DataClosea
             throw new IllegalStateException("Connection has already been closed");
         }
 
-        return new DbContext(this, tenant);
+        return new DbContext(this, tenant, false);
+    }
+
+    public DbContext openReadOnlyContext() {
+        return openReadOnlyContext(null);
+    }
+
+    public DbContext openReadOnlyContext(DbTenant tenant) {
+        if (isClosed()) {
+            throw new IllegalStateException("Connection has already been closed");
+        }
+
+        return new DbContext(this, tenant, true);
+    }
+
+    public <R> R execute(DbWork<R> work) throws DataException {
+        Validate.notNull(work, "work");
+
+        // A context is bound to the thread that opened it, so work that runs on a thread
+        // which already has a context gets that context instead of failing.
+
+        DbContext ctx = getCurrentContext();
+        if (ctx != null) {
+            try {
+                return work.execute(ctx);
+            } catch (RuntimeException | DataException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new DataException("Cannot execute work", e);
+            }
+        }
+
+        try (DbContext newCtx = openContext()) {
+            R result;
+
+            try {
+                result = work.execute(newCtx);
+            } catch (RuntimeException | DataException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new DataException("Cannot execute work", e);
+            }
+
+            newCtx.commit();
+
+            return result;
+        }
+    }
+
+    public <R> Future<R> executeAsync(final DbWork<R> work) {
+        Validate.notNull(work, "work");
+
+        if (isClosed()) {
+            throw new IllegalStateException("Connection has already been closed");
+        }
+
+        return getAsyncExecutor().submit(new Callable<R>() {
+            @Override
+            public R call() throws Exception {
+                if (asyncPermits == null) {
+                    return execute(work);
+                }
+
+                asyncPermits.acquire();
+
+                try {
+                    return execute(work);
+                } finally {
+                    asyncPermits.release();
+                }
+            }
+        });
+    }
+
+    private synchronized ExecutorService getAsyncExecutor() {
+        if (asyncExecutor == null) {
+            final AtomicInteger threadNumber = new AtomicInteger();
+
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                asyncConcurrency,
+                asyncConcurrency,
+                60,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "gmtdata-async-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }
+            );
+
+            executor.allowCoreThreadTimeOut(true);
+
+            asyncExecutor = executor;
+        }
+
+        return asyncExecutor;
+    }
+
+    public DbBulkContext openBulkContext() {
+        return openBulkContext(null);
+    }
+
+    public DbBulkContext openBulkContext(DbTenant tenant) {
+        if (isClosed()) {
+            throw new IllegalStateException("Connection has already been closed");
+        }
+
+        return new DbBulkContext(this, tenant);
+    }
+
+    Connection getReplicaConnection(DbTenant tenant) throws SQLException {
+        if (replicaPool == null) {
+            return null;
+        }
+
+        if (replicaDefaultDatabase == null) {
+            return replicaPool.getConnection();
+        }
+
+        return tenantIsolation.getConnection(replicaPool, tenant != null ? tenant.getDatabase() : null, replicaDefaultDatabase);
     }
 
     public boolean isClosed() {
@@ -291,7 +652,7 @@ public abstract class DbConnection<T extends EntitySchema> implements DataClosea
         return contextTransitioned.remove(listener);
     }
 
-    void raiseContextTransitioned(DbContext context, DbContextTransition transition) {
+    void raiseContextTransitioned(Object context, DbContextTransition transition) {
         Validate.notNull(context, "context");
         Validate.notNull(transition, "transition");
 
@@ -320,6 +681,14 @@ public abstract class DbConnection<T extends EntitySchema> implements DataClosea
         return usageManager.getUsage(ctx, entity, exclusions);
     }
 
+    public Map<Entity, DbEntityUsage> getUsage(DbContext ctx, Collection<? extends Entity> entities, EntityType... exclusions) {
+        return usageManager.getUsage(ctx, entities, exclusions);
+    }
+
+    public boolean hasUsage(DbContext ctx, Entity entity, EntityType... exclusions) {
+        return usageManager.hasUsage(ctx, entity, exclusions);
+    }
+
     String getText(String key, Object... args) {
         Validate.notNull(key, "key");
 
@@ -0,0 +1,44 @@
+package nl.gmt.data;
+
+public class DbConnectionPoolStatistics {
+    private final int activeCount;
+    private final int idleCount;
+    private final int pendingCount;
+    private final long acquireCount;
+    private final long acquireTime;
+
+    public DbConnectionPoolStatistics(int activeCount, int idleCount, int pendingCount, long acquireCount, long acquireTime) {
+        this.activeCount = activeCount;
+        this.idleCount = idleCount;
+        this.pendingCount = pendingCount;
+        this.acquireCount = acquireCount;
+        this.acquireTime = acquireTime;
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public int getIdleCount() {
+        return idleCount;
+    }
+
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    public long getAcquireCount() {
+        return acquireCount;
+    }
+
+    public double getAverageAcquireTime() {
+        // In milliseconds; the total is kept in nanoseconds.
+
+        return acquireCount == 0 ? 0 : acquireTime / (acquireCount * 1000000.0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d active, %d idle, %d pending, %.3f ms average acquire time", activeCount, idleCount, pendingCount, getAverageAcquireTime());
+    }
+}
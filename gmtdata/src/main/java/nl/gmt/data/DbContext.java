@@ -4,9 +4,12 @@ import nl.gmt.data.support.DelegateListener;
 import nl.gmt.data.support.Delegate;
 import org.apache.commons.lang.Validate;
 import org.hibernate.*;
+import org.hibernate.jdbc.Work;
 import org.jboss.logging.Logger;
 
 import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -18,30 +21,58 @@ public class DbContext implements DataCloseable {
         throwExceptionOnAbort = value;
     }
 
+    static boolean isThrowExceptionOnAbort() {
+        return throwExceptionOnAbort;
+    }
+
     private final Transaction tx;
     private final DbConnection db;
     private final DbTenant tenant;
+    private final boolean readOnly;
+    private Connection replicaConnection;
     private Session session;
     private DbContextState state;
     private final Delegate<DbContextTransition> transitioned = new Delegate<>();
     private boolean closed;
+    private Map<Class<?>, Repository> repositories;
     private Map<String, Object> userProperties;
 
-    DbContext(DbConnection db, DbTenant tenant) {
+    DbContext(DbConnection db, DbTenant tenant, boolean readOnly) {
         Validate.notNull(db, "db");
 
         this.db = db;
         this.tenant = tenant;
+        this.readOnly = readOnly;
 
         state = DbContextState.UNKNOWN;
 
         raiseTransitioned(DbContextTransition.OPENING);
 
         try {
+            if (readOnly) {
+                replicaConnection = db.getReplicaConnection(tenant);
+            }
+
+            SessionBuilder sessionBuilder = db.getSessionFactory().withOptions();
+
             if (tenant != null) {
-                session = db.getSessionFactory().withOptions().tenantIdentifier(tenant.getDatabase()).openSession();
-            } else {
-                session = db.getSessionFactory().openSession();
+                sessionBuilder.tenantIdentifier(tenant.getDatabase());
+            }
+            if (replicaConnection != null) {
+                sessionBuilder.connection(replicaConnection);
+            }
+
+            session = sessionBuilder.openSession();
+
+            // A replica may lag behind the primary, so what's read from it must not end up in
+            // the shared second level cache. The cache is still read.
+
+            if (replicaConnection != null) {
+                session.setCacheMode(CacheMode.GET);
+            }
+
+            if (readOnly) {
+                openReadOnly();
             }
 
             tx = session.beginTransaction();
@@ -67,10 +98,32 @@ public class DbContext implements DataCloseable {
         }
     }
 
+    private void openReadOnly() {
+        // Entities aren't snapshotted for dirty checking and nothing is flushed. The JDBC
+        // connection is made read only too so the database can optimize the transaction.
+        // SQLite doesn't allow changing this on an open connection.
+
+        session.setDefaultReadOnly(true);
+        session.setFlushMode(FlushMode.MANUAL);
+
+        if (db.getType() != DbType.SQLITE) {
+            session.doWork(new Work() {
+                @Override
+                public void execute(Connection connection) throws SQLException {
+                    connection.setReadOnly(true);
+                }
+            });
+        }
+    }
+
     public DbConnection getConnection() {
         return db;
     }
 
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
     public DbTenant getTenant() {
         return tenant;
     }
@@ -116,16 +169,29 @@ public class DbContext implements DataCloseable {
         state = DbContextState.ABORTED;
     }
 
+    @SuppressWarnings("unchecked")
     public <T extends Repository> T getRepository(Class<T> repositoryClass) {
-        RepositoryService repositoryService = db.getRepositoryService();
+        // Repositories are bound to the context, so they're created once per context.
 
-        if (repositoryService == null) {
-            throw new IllegalStateException("Repository service is not available");
+        if (repositories == null) {
+            repositories = new HashMap<>();
         }
 
-        T repository = repositoryService.getRepository(repositoryClass);
+        T repository = (T)repositories.get(repositoryClass);
 
-        repository.setContext(this);
+        if (repository == null) {
+            RepositoryService repositoryService = db.getRepositoryService();
+
+            if (repositoryService == null) {
+                throw new IllegalStateException("Repository service is not available");
+            }
+
+            repository = repositoryService.getRepository(repositoryClass);
+
+            repository.setContext(this);
+
+            repositories.put(repositoryClass, repository);
+        }
 
         return repository;
     }
@@ -155,12 +221,14 @@ public class DbContext implements DataCloseable {
 
                     try {
                         if (state == DbContextState.COMMITTED) {
-                            session.flush();
+                            if (!readOnly) {
+                                session.flush();
+                            }
                             tx.commit();
                             success = true;
                         }
                     } finally {
-                        if (!success) {
+                        if (!success && tx != null) {
                             tx.rollback();
                         }
                     }
@@ -170,6 +238,8 @@ public class DbContext implements DataCloseable {
                 }
             }
         } finally {
+            closeReplicaConnection();
+
             raiseTransitioned(DbContextTransition.CLOSED);
         }
 
@@ -180,6 +250,20 @@ public class DbContext implements DataCloseable {
         }
     }
 
+    private void closeReplicaConnection() {
+        // Connections supplied to the session aren't closed by Hibernate.
+
+        if (replicaConnection != null) {
+            try {
+                replicaConnection.close();
+            } catch (SQLException e) {
+                LOG.warn("Cannot close replica connection", e);
+            }
+
+            replicaConnection = null;
+        }
+    }
+
     public void refresh(Entity entity, LockOptions lockOptions) {
         session.refresh(entity, lockOptions);
     }
@@ -258,7 +342,7 @@ public class DbContext implements DataCloseable {
     }
 
     public <T> DbQuery<T> createQuery(String queryString) {
-        return new DbQuery<T>(session.createQuery(queryString));
+        return new DbQuery<T>(session.createQuery(queryString), session, db.getDriver().getStreamingFetchSize());
     }
 
     public Entity load(String entityName, Serializable id, LockOptions lockOptions) {
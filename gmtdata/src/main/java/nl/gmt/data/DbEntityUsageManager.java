@@ -1,15 +1,17 @@
 package nl.gmt.data;
 
 import org.apache.commons.lang.Validate;
-import org.hibernate.Criteria;
 import org.hibernate.Hibernate;
-import org.hibernate.criterion.Criterion;
-import org.hibernate.criterion.Projections;
-import org.hibernate.criterion.Restrictions;
+import org.hibernate.SQLQuery;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.type.StandardBasicTypes;
+import org.hibernate.type.Type;
 
 import java.util.*;
 
 class DbEntityUsageManager<T extends EntitySchema> {
+    private static final int MAX_PARAMETERS = 1000;
     private static final DbEntityUsage EMPTY_USAGE = new DbEntityUsage(Collections.<DbEntityUsageRelation>emptyList());
 
     private final DbConnection<T> db;
@@ -52,6 +54,14 @@ class DbEntityUsageManager<T extends EntitySchema> {
                 relationship.fields.add(foreignParent);
             }
         }
+
+        Dialect dialect = ((SessionFactoryImplementor)db.getSessionFactory()).getDialect();
+
+        for (Map.Entry<EntityType, List<Relationship>> entry : relationships.entrySet()) {
+            for (Relationship relationship : entry.getValue()) {
+                relationship.buildCondition(dialect, entry.getKey());
+            }
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -61,58 +71,214 @@ class DbEntityUsageManager<T extends EntitySchema> {
 
         EntityType type = db.getEntitySchema().getEntityType((Class<? extends Entity>)Hibernate.getClass(entity));
 
-        List<Relationship> relationships = this.relationships.get(type);
-        if (relationships == null) {
+        List<Relationship> relationships = getRelationships(type, exclusions);
+        if (relationships.size() == 0) {
             return EMPTY_USAGE;
         }
 
+        // Count the usages of all relationships in a single statement. Every row of the result
+        // holds the index of the relationship and its number of matched rows.
+
+        StringBuilder sql = new StringBuilder();
+
+        for (int i = 0; i < relationships.size(); i++) {
+            if (i > 0) {
+                sql.append(" UNION ALL ");
+            }
+
+            sql.append("SELECT ").append(i).append(" AS usage_index, COUNT(*) AS usage_count ").append(relationships.get(i).condition);
+        }
+
+        int[] counts = new int[relationships.size()];
+
+        SQLQuery query = createQuery(ctx, sql.toString(), relationships, type, entity);
+
+        query.addScalar("usage_index", StandardBasicTypes.INTEGER);
+        query.addScalar("usage_count", StandardBasicTypes.LONG);
+
+        for (Object[] row : (List<Object[]>)query.list()) {
+            counts[((Number)row[0]).intValue()] = ((Number)row[1]).intValue();
+        }
+
         List<DbEntityUsageRelation> usageRelations = null;
 
-        for (Relationship relationship : relationships) {
-            if (isExcluded(relationship, exclusions)) {
-                continue;
+        for (int i = 0; i < relationships.size(); i++) {
+            if (counts[i] > 0) {
+                if (usageRelations == null) {
+                    usageRelations = new ArrayList<>();
+                }
+
+                usageRelations.add(new DbEntityUsageRelation(relationships.get(i).type, counts[i]));
             }
+        }
 
-            Criteria criteria = ctx.createCriteria(relationship.type.getModel());
+        if (usageRelations == null) {
+            return EMPTY_USAGE;
+        }
 
-            // Exclude the current entity if the relationship is of this entity.
+        return new DbEntityUsage(usageRelations);
+    }
+
+    @SuppressWarnings("unchecked")
+    public boolean hasUsage(DbContext ctx, Entity entity, EntityType... exclusions) {
+        Validate.notNull(ctx, "ctx");
+        Validate.notNull(entity, "entity");
+
+        EntityType type = db.getEntitySchema().getEntityType((Class<? extends Entity>)Hibernate.getClass(entity));
+
+        List<Relationship> relationships = getRelationships(type, exclusions);
+        if (relationships.size() == 0) {
+            return false;
+        }
+
+        // EXISTS lets the database stop at the first matching row instead of counting them all.
+
+        StringBuilder sql = new StringBuilder("SELECT CASE WHEN ");
+
+        for (int i = 0; i < relationships.size(); i++) {
+            if (i > 0) {
+                sql.append(" OR ");
+            }
+
+            sql.append("EXISTS (SELECT 1 ").append(relationships.get(i).condition).append(")");
+        }
+
+        sql.append(" THEN 1 ELSE 0 END");
+
+        return ((Number)createQuery(ctx, sql.toString(), relationships, type, entity).uniqueResult()).intValue() == 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<Entity, DbEntityUsage> getUsage(DbContext ctx, Collection<? extends Entity> entities, EntityType... exclusions) {
+        Validate.notNull(ctx, "ctx");
+        Validate.notNull(entities, "entities");
+
+        Map<Entity, DbEntityUsage> result = new LinkedHashMap<>();
+        Map<EntityType, Map<Object, List<Entity>>> entitiesByType = new LinkedHashMap<>();
 
-            if (type == relationship.type) {
-                criteria.add(Restrictions.ne(type.getId().getFieldName(), entity.getId()));
+        for (Entity entity : entities) {
+            Validate.notNull(entity, "entity");
+
+            result.put(entity, EMPTY_USAGE);
+
+            EntityType type = db.getEntitySchema().getEntityType((Class<? extends Entity>)Hibernate.getClass(entity));
+
+            Map<Object, List<Entity>> entitiesById = entitiesByType.get(type);
+            if (entitiesById == null) {
+                entitiesById = new LinkedHashMap<>();
+                entitiesByType.put(type, entitiesById);
             }
 
-            // Build an or-ed filter of all dependent fields.
+            List<Entity> sameId = entitiesById.get(entity.getId());
+            if (sameId == null) {
+                sameId = new ArrayList<>();
+                entitiesById.put(entity.getId(), sameId);
+            }
 
-            Criterion criterion = null;
+            sameId.add(entity);
+        }
 
-            for (EntityForeignParent field : relationship.fields) {
-                Criterion restriction = Restrictions.eq(field.getFieldName(), entity);
-                if (criterion != null) {
-                    restriction = Restrictions.or(criterion, restriction);
+        for (Map.Entry<EntityType, Map<Object, List<Entity>>> entry : entitiesByType.entrySet()) {
+            EntityType type = entry.getKey();
+            Map<Object, List<Entity>> entitiesById = entry.getValue();
+            Map<Object, List<DbEntityUsageRelation>> usageRelations = new HashMap<>();
+
+            for (Relationship relationship : getRelationships(type, exclusions)) {
+                for (Map.Entry<Object, Long> count : getCounts(ctx, type, relationship, new ArrayList<>(entitiesById.keySet())).entrySet()) {
+                    List<DbEntityUsageRelation> relations = usageRelations.get(count.getKey());
+                    if (relations == null) {
+                        relations = new ArrayList<>();
+                        usageRelations.put(count.getKey(), relations);
+                    }
+
+                    relations.add(new DbEntityUsageRelation(relationship.type, count.getValue().intValue()));
                 }
-                criterion = restriction;
             }
 
-            criteria.add(criterion);
+            for (Map.Entry<Object, List<DbEntityUsageRelation>> usage : usageRelations.entrySet()) {
+                DbEntityUsage entityUsage = new DbEntityUsage(usage.getValue());
 
-            // Get the number of matched rows.
+                for (Entity entity : entitiesById.get(usage.getKey())) {
+                    result.put(entity, entityUsage);
+                }
+            }
+        }
 
-            int count = ((Number)criteria.setProjection(Projections.rowCount()).uniqueResult()).intValue();
+        return result;
+    }
 
-            if (count > 0) {
-                if (usageRelations == null) {
-                    usageRelations = new ArrayList<>();
+    @SuppressWarnings("unchecked")
+    private Map<Object, Long> getCounts(DbContext ctx, EntityType type, Relationship relationship, List<Object> ids) {
+        Type idType = db.getSessionFactory().getClassMetadata(type.getModel()).getIdentifierType();
+        Map<Object, Long> counts = new HashMap<>();
+
+        // The IDs are queried in chunks to stay below the parameter limits of the databases.
+
+        int chunkSize = Math.max(1, MAX_PARAMETERS / relationship.fields.size());
+
+        for (int offset = 0; offset < ids.size(); offset += chunkSize) {
+            List<Object> chunk = ids.subList(offset, Math.min(offset + chunkSize, ids.size()));
+
+            SQLQuery query = ctx.getSession().createSQLQuery(relationship.buildGroupedQuery(chunk.size()));
+
+            query.addScalar("usage_id", idType);
+            query.addScalar("usage_count", StandardBasicTypes.LONG);
+            query.addSynchronizedEntityClass(relationship.type.getModel());
+
+            int position = 0;
+
+            for (int i = 0; i < relationship.fields.size(); i++) {
+                for (Object id : chunk) {
+                    query.setParameter(position++, id, idType);
                 }
+            }
 
-                usageRelations.add(new DbEntityUsageRelation(relationship.type, count));
+            // A row is returned for every field of the relationship, so the counts are summed.
+
+            for (Object[] row : (List<Object[]>)query.list()) {
+                Long count = counts.get(row[0]);
+
+                counts.put(row[0], (count == null ? 0 : count) + (Long)row[1]);
             }
         }
 
-        if (usageRelations == null) {
-            return EMPTY_USAGE;
+        return counts;
+    }
+
+    private SQLQuery createQuery(DbContext ctx, String sql, List<Relationship> relationships, EntityType type, Entity entity) {
+        SQLQuery query = ctx.getSession().createSQLQuery(sql);
+
+        Type idType = db.getSessionFactory().getClassMetadata(type.getModel()).getIdentifierType();
+        int position = 0;
+
+        for (Relationship relationship : relationships) {
+            // Only flush the tables we're querying, like a Criteria query would.
+
+            query.addSynchronizedEntityClass(relationship.type.getModel());
+
+            for (int i = 0; i < relationship.parameterCount; i++) {
+                query.setParameter(position++, entity.getId(), idType);
+            }
         }
 
-        return new DbEntityUsage(usageRelations);
+        return query;
+    }
+
+    private List<Relationship> getRelationships(EntityType type, EntityType[] exclusions) {
+        List<Relationship> relationships = this.relationships.get(type);
+        if (relationships == null) {
+            return Collections.emptyList();
+        }
+
+        List<Relationship> result = new ArrayList<>(relationships.size());
+
+        for (Relationship relationship : relationships) {
+            if (!isExcluded(relationship, exclusions)) {
+                result.add(relationship);
+            }
+        }
+
+        return result;
     }
 
     private boolean isExcluded(Relationship relationship, EntityType[] exclusions) {
@@ -132,9 +298,103 @@ class DbEntityUsageManager<T extends EntitySchema> {
     private static class Relationship {
         final EntityType type;
         final List<EntityForeignParent> fields = new ArrayList<>();
+        String condition;
+        int parameterCount;
+        private String tableName;
+        private String idName;
+        private String[] fieldNames;
+        private boolean selfReference;
 
         public Relationship(EntityType type) {
             this.type = type;
         }
+
+        void buildCondition(Dialect dialect, EntityType foreign) {
+            // Builds the FROM and WHERE clause that matches the rows that reference an entity
+            // through any of the fields. Every parameter is bound to the ID of the entity.
+
+            tableName = quote(dialect, type.getSchemaClass().getResolvedDbName());
+            idName = quote(dialect, type.getId().getResolvedDbName());
+            fieldNames = new String[fields.size()];
+            selfReference = type == foreign;
+
+            for (int i = 0; i < fieldNames.length; i++) {
+                fieldNames[i] = quote(dialect, fields.get(i).getResolvedDbName());
+            }
+
+            StringBuilder sb = new StringBuilder();
+
+            sb.append("FROM ").append(tableName).append(" WHERE (");
+
+            for (int i = 0; i < fieldNames.length; i++) {
+                if (i > 0) {
+                    sb.append(" OR ");
+                }
+
+                sb.append(fieldNames[i]).append(" = ?");
+            }
+
+            sb.append(")");
+
+            parameterCount = fieldNames.length;
+
+            // Exclude the current entity if the relationship is of this entity.
+
+            if (selfReference) {
+                sb.append(" AND ").append(idName).append(" <> ?");
+                parameterCount++;
+            }
+
+            condition = sb.toString();
+        }
+
+        String buildGroupedQuery(int idCount) {
+            // Builds a query that counts the referencing rows per ID for every field. The parameters
+            // are the IDs, repeated for every field.
+
+            StringBuilder sb = new StringBuilder();
+
+            for (int i = 0; i < fieldNames.length; i++) {
+                if (i > 0) {
+                    sb.append(" UNION ALL ");
+                }
+
+                sb
+                    .append("SELECT ").append(fieldNames[i]).append(" AS usage_id, COUNT(*) AS usage_count FROM ")
+                    .append(tableName).append(" WHERE ").append(fieldNames[i]).append(" IN (");
+
+                for (int j = 0; j < idCount; j++) {
+                    if (j > 0) {
+                        sb.append(", ");
+                    }
+                    sb.append('?');
+                }
+
+                sb.append(')');
+
+                // A row that references the same entity through multiple fields is only counted
+                // for the first of these fields.
+
+                for (int j = 0; j < i; j++) {
+                    sb
+                        .append(" AND (").append(fieldNames[j]).append(" IS NULL OR ")
+                        .append(fieldNames[j]).append(" <> ").append(fieldNames[i]).append(')');
+                }
+
+                // Exclude the entity itself if the relationship is of this entity.
+
+                if (selfReference) {
+                    sb.append(" AND ").append(idName).append(" <> ").append(fieldNames[i]);
+                }
+
+                sb.append(" GROUP BY ").append(fieldNames[i]);
+            }
+
+            return sb.toString();
+        }
+
+        private static String quote(Dialect dialect, String name) {
+            return dialect.openQuote() + name + dialect.closeQuote();
+        }
     }
 }
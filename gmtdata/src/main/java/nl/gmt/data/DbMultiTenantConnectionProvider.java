@@ -1,9 +1,12 @@
 package nl.gmt.data;
 
+import nl.gmt.data.pool.ConnectionPool;
+import nl.gmt.data.pool.LocalConnectionProvider;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 import org.hibernate.HibernateException;
-import org.hibernate.c3p0.internal.C3P0ConnectionProvider;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
 import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
 import org.hibernate.service.UnknownUnwrapTypeException;
 import org.hibernate.service.spi.Configurable;
@@ -18,18 +21,32 @@ import java.util.Map;
 public class DbMultiTenantConnectionProvider implements MultiTenantConnectionProvider, Configurable, Stoppable, ServiceRegistryAwareService {
     private static final Logger LOG = LogManager.getLogger(DbMultiTenantConnectionProvider.class);
 
+    public static final String TENANT_ISOLATION = "nl.gmt.data.tenant_isolation";
+
+    private DbTenantIsolation isolation;
     private String defaultDatabase;
-    private final C3P0ConnectionProvider connectionProvider = new C3P0ConnectionProvider();
+    private ServiceRegistryImplementor serviceRegistry;
+    private ConnectionProvider connectionProvider;
+    private ConnectionPool pool;
 
     @Override
     public void configure(Map configurationValues) {
-        connectionProvider.configure(configurationValues);
+        connectionProvider = createConnectionProvider(configurationValues);
+
+        String isolation = (String)configurationValues.get(TENANT_ISOLATION);
+        this.isolation = isolation != null ? DbTenantIsolation.valueOf(isolation) : DbTenantIsolation.CATALOG;
+
+        // When the pool supports it, connections keep the tenant they were last used for.
+
+        if (connectionProvider.isUnwrappableAs(ConnectionPool.class)) {
+            pool = connectionProvider.unwrap(ConnectionPool.class);
+        }
 
         try {
             Connection connection = getAnyConnection();
 
             try {
-                defaultDatabase = connection.getCatalog();
+                defaultDatabase = this.isolation.read(connection);
             } finally {
                 releaseAnyConnection(connection);
             }
@@ -40,8 +57,39 @@ public class DbMultiTenantConnectionProvider implements MultiTenantConnectionPro
         }
     }
 
+    private ConnectionProvider createConnectionProvider(Map configurationValues) {
+        // Hibernate doesn't create a connection provider with multi tenancy enabled, so the
+        // configured connection pool is created here.
+
+        String className = (String)configurationValues.get(AvailableSettings.CONNECTION_PROVIDER);
+        if (className == null) {
+            className = LocalConnectionProvider.class.getName();
+        }
+
+        ConnectionProvider connectionProvider;
+
+        try {
+            connectionProvider = (ConnectionProvider)Class.forName(className).newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new HibernateException(String.format("Cannot create connection provider '%s'", className), e);
+        }
+
+        if (connectionProvider instanceof ServiceRegistryAwareService) {
+            ((ServiceRegistryAwareService)connectionProvider).injectServices(serviceRegistry);
+        }
+        if (connectionProvider instanceof Configurable) {
+            ((Configurable)connectionProvider).configure(configurationValues);
+        }
+
+        return connectionProvider;
+    }
+
     @Override
     public Connection getAnyConnection() throws SQLException {
+        if (pool != null) {
+            return getTenantConnection(null);
+        }
+
         return connectionProvider.getConnection();
     }
 
@@ -52,23 +100,46 @@ public class DbMultiTenantConnectionProvider implements MultiTenantConnectionPro
 
     @Override
     public Connection getConnection(String tenantIdentifier) throws SQLException {
-        Connection connection = getAnyConnection();
+        if (pool != null) {
+            return getTenantConnection(tenantIdentifier);
+        }
+
+        Connection connection = connectionProvider.getConnection();
 
         try {
-            connection.setCatalog(tenantIdentifier);
+            isolation.switchTo(connection, tenantIdentifier);
         } catch (SQLException e) {
             LOG.warn("Couldn't set catalog for tenant connection", e);
 
+            connectionProvider.closeConnection(connection);
+
             throw e;
         }
 
         return connection;
     }
 
+    private Connection getTenantConnection(String tenantIdentifier) throws SQLException {
+        try {
+            return isolation.getConnection(pool, tenantIdentifier, defaultDatabase);
+        } catch (SQLException e) {
+            LOG.warn("Couldn't set catalog for tenant connection", e);
+
+            throw e;
+        }
+    }
+
     @Override
     public void releaseConnection(String tenantIdentifier, Connection connection) throws SQLException {
+        // Pooled connections stay on their tenant.
+
+        if (pool != null) {
+            connectionProvider.closeConnection(connection);
+            return;
+        }
+
         try {
-            connection.setCatalog(defaultDatabase);
+            isolation.apply(connection, defaultDatabase);
         } catch (SQLException e) {
             // Do not return the connection to the connection provider when we couldn't switch back to the default
             // database.
@@ -94,21 +165,27 @@ public class DbMultiTenantConnectionProvider implements MultiTenantConnectionPro
 
     @Override
     public void stop() {
-        connectionProvider.stop();
+        if (connectionProvider instanceof Stoppable) {
+            ((Stoppable)connectionProvider).stop();
+        }
     }
 
     @Override
     public boolean isUnwrappableAs(Class unwrapType) {
-        return false;
+        return connectionProvider != null && connectionProvider.isUnwrappableAs(unwrapType);
     }
 
     @Override
     public <T> T unwrap(Class<T> unwrapType) {
-        throw new UnknownUnwrapTypeException(unwrapType);
+        if (!isUnwrappableAs(unwrapType)) {
+            throw new UnknownUnwrapTypeException(unwrapType);
+        }
+
+        return connectionProvider.unwrap(unwrapType);
     }
 
     @Override
     public void injectServices(ServiceRegistryImplementor serviceRegistry) {
-        connectionProvider.injectServices(serviceRegistry);
+        this.serviceRegistry = serviceRegistry;
     }
 }
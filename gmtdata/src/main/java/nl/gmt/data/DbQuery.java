@@ -1,5 +1,6 @@
 package nl.gmt.data;
 
+import org.apache.commons.lang.Validate;
 import org.hibernate.*;
 import org.hibernate.transform.ResultTransformer;
 import org.hibernate.type.Type;
@@ -11,10 +12,16 @@ import java.math.BigInteger;
 import java.util.*;
 
 public class DbQuery<T> implements Iterable<T> {
+    private static final int DEFAULT_EVICT_EVERY = 1000;
+
     private final Query query;
+    private final Session session;
+    private final int streamingFetchSize;
 
-    DbQuery(Query query) {
+    DbQuery(Query query, Session session, int streamingFetchSize) {
         this.query = query;
+        this.session = session;
+        this.streamingFetchSize = streamingFetchSize;
     }
 
     public String getQueryString() {
@@ -399,6 +406,44 @@ public class DbQuery<T> implements Iterable<T> {
         return query.scroll();
     }
 
+    public DbQueryStream<T> stream() {
+        return stream(DEFAULT_EVICT_EVERY);
+    }
+
+    public DbQueryStream<T> stream(int evictEvery) {
+        // Without a fetch size most drivers read the complete result set into memory. An
+        // explicitly set fetch size is left alone.
+
+        if (query.getFetchSize() == null) {
+            query.setFetchSize(streamingFetchSize);
+        }
+
+        return new DbQueryStream<>(query.scroll(ScrollMode.FORWARD_ONLY), session, evictEvery);
+    }
+
+    public void forEachChunk(int chunkSize, DbQueryChunkHandler<T> handler) {
+        Validate.isTrue(chunkSize > 0, "chunkSize must be greater than zero");
+        Validate.notNull(handler, "handler");
+
+        try (DbQueryStream<T> stream = stream(chunkSize)) {
+            List<T> chunk = new ArrayList<>(chunkSize);
+
+            for (T result : stream) {
+                chunk.add(result);
+
+                if (chunk.size() == chunkSize) {
+                    handler.handle(chunk);
+
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+
+            if (chunk.size() > 0) {
+                handler.handle(chunk);
+            }
+        }
+    }
+
     public DbQuery<T> setCacheable(boolean cacheable) {
         query.setCacheable(cacheable);
         return this;
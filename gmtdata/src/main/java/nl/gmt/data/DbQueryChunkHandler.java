@@ -0,0 +1,7 @@
+package nl.gmt.data;
+
+import java.util.List;
+
+public interface DbQueryChunkHandler<T> {
+    void handle(List<T> chunk);
+}
@@ -0,0 +1,128 @@
+package nl.gmt.data;
+
+import org.apache.commons.lang.Validate;
+import org.hibernate.FlushMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public class DbQueryStream<T> implements Iterator<T>, Iterable<T>, DataCloseable {
+    private final ScrollableResults results;
+    private final Session session;
+    private final int evictEvery;
+    private final List<Object> processed = new ArrayList<>();
+    private boolean fetched;
+    private boolean hasNext;
+    private boolean closed;
+
+    DbQueryStream(ScrollableResults results, Session session, int evictEvery) {
+        Validate.notNull(results, "results");
+        Validate.isTrue(evictEvery > 0, "evictEvery must be greater than zero");
+
+        this.results = results;
+        this.session = session;
+        this.evictEvery = evictEvery;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+
+        if (!fetched) {
+            hasNext = results.next();
+            fetched = true;
+
+            // The cursor is closed as soon as it's exhausted, so a stream that is read to the
+            // end doesn't keep the result set open until the context closes.
+
+            if (!hasNext) {
+                close();
+            }
+        }
+
+        return hasNext;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        fetched = false;
+
+        // Rows are evicted in batches when the next row is requested, so the caller can still
+        // work with the rows it received since the last eviction.
+
+        if (processed.size() >= evictEvery) {
+            evictProcessed();
+        }
+
+        Object[] row = results.get();
+        Object result = row.length == 1 ? row[0] : row;
+
+        if (session != null) {
+            processed.add(result);
+        }
+
+        return (T)result;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return this;
+    }
+
+    private void evictProcessed() {
+        // Evicting an entity discards its pending changes, so these are written first. A
+        // context that flushes manually has to do so itself before the rows can be evicted.
+
+        if (session.isDirty()) {
+            if (session.getFlushMode() == FlushMode.MANUAL) {
+                throw new IllegalStateException("Cannot evict streamed rows with unflushed changes; flush the context first");
+            }
+
+            session.flush();
+        }
+
+        for (Object result : processed) {
+            if (result instanceof Object[]) {
+                for (Object item : (Object[])result) {
+                    evict(item);
+                }
+            } else {
+                evict(result);
+            }
+        }
+
+        processed.clear();
+    }
+
+    private void evict(Object item) {
+        if (item instanceof Entity && session.contains(item)) {
+            session.evict(item);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            processed.clear();
+
+            results.close();
+        }
+    }
+}
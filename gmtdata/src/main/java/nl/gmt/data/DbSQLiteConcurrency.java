@@ -0,0 +1,6 @@
+package nl.gmt.data;
+
+public enum DbSQLiteConcurrency {
+    SERIALIZED,
+    WAL
+}
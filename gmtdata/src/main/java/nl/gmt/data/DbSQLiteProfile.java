@@ -0,0 +1,47 @@
+package nl.gmt.data;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public enum DbSQLiteProfile {
+    DEFAULT(),
+
+    DURABLE(
+        "synchronous", "FULL"
+    ),
+
+    BALANCED(
+        "synchronous", "NORMAL",
+        "temp_store", "MEMORY",
+        "cache_size", "-16000",
+        "mmap_size", "268435456"
+    ),
+
+    // Trades durability for speed. A crash may corrupt the database, so this is meant
+    // for databases that can be rebuilt, e.g. caches or during an initial import.
+
+    FAST(
+        "journal_mode", "MEMORY",
+        "synchronous", "OFF",
+        "temp_store", "MEMORY",
+        "cache_size", "-64000",
+        "mmap_size", "268435456"
+    );
+
+    private final Map<String, String> pragmas;
+
+    DbSQLiteProfile(String... pragmas) {
+        Map<String, String> map = new LinkedHashMap<>();
+
+        for (int i = 0; i < pragmas.length; i += 2) {
+            map.put(pragmas[i], pragmas[i + 1]);
+        }
+
+        this.pragmas = Collections.unmodifiableMap(map);
+    }
+
+    public Map<String, String> getPragmas() {
+        return pragmas;
+    }
+}
@@ -0,0 +1,100 @@
+package nl.gmt.data;
+
+import nl.gmt.data.pool.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Objects;
+
+public enum DbTenantIsolation {
+    CATALOG {
+        @Override
+        String read(Connection connection) throws SQLException {
+            return connection.getCatalog();
+        }
+
+        @Override
+        void apply(Connection connection, String value) throws SQLException {
+            connection.setCatalog(value);
+        }
+
+        @Override
+        String forTenant(String database) {
+            return database;
+        }
+    },
+
+    SEARCH_PATH {
+        @Override
+        String read(Connection connection) throws SQLException {
+            try (
+                Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery("SHOW search_path")
+            ) {
+                if (!rs.next()) {
+                    throw new SQLException("Cannot read search path");
+                }
+
+                return rs.getString(1);
+            }
+        }
+
+        @Override
+        void apply(Connection connection, String value) throws SQLException {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("SET search_path TO " + value);
+            }
+
+            // SET is transactional, so it would be undone by a rollback of the next transaction.
+
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        }
+
+        @Override
+        String forTenant(String database) {
+            return "\"" + database.replace("\"", "\"\"") + "\"";
+        }
+    };
+
+    abstract String read(Connection connection) throws SQLException;
+
+    abstract void apply(Connection connection, String value) throws SQLException;
+
+    abstract String forTenant(String database);
+
+    public void switchTo(Connection connection, String database) throws SQLException {
+        apply(connection, forTenant(database));
+    }
+
+    Connection getConnection(ConnectionPool pool, String database, String defaultDatabase) throws SQLException {
+        // The pool tags connections with the tenant they were switched to and prefers handing out
+        // connections of the requested tenant. A switch is only needed when it couldn't. A null
+        // tenant is the default database.
+
+        Connection connection = pool.getConnection(database);
+
+        if (!Objects.equals(database, pool.getTag(connection))) {
+            try {
+                if (database == null) {
+                    apply(connection, defaultDatabase);
+                } else {
+                    switchTo(connection, database);
+                }
+            } catch (SQLException e) {
+                // The state of the connection is unknown, so it can't go back into the pool.
+
+                pool.discard(connection);
+
+                throw e;
+            }
+
+            pool.setTag(connection, database);
+        }
+
+        return connection;
+    }
+}
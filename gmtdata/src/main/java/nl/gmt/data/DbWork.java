@@ -0,0 +1,5 @@
+package nl.gmt.data;
+
+public interface DbWork<T> {
+    T execute(DbContext ctx) throws Exception;
+}
@@ -11,8 +11,8 @@ import java.lang.reflect.Method;
 import java.util.UUID;
 
 public abstract class EntityFieldAccessor {
-    static EntityFieldAccessor createAccessor(Method getter, Method setter) throws DataException {
-        return Builder.build(getter, setter);
+    static EntityFieldAccessor createAccessor(Method getter, Method setter, AccessorClassLoader classLoader) throws DataException {
+        return Builder.build(getter, setter, classLoader);
     }
 
     private final Class<?> type;
@@ -51,7 +51,6 @@ public abstract class EntityFieldAccessor {
     public abstract void setValue(Object object, Object value);
 
     private static class Builder implements Opcodes {
-        private static final MyClassLoader CLASS_LOADER = new MyClassLoader(EntityFieldAccessor.class.getClassLoader());
         private static final Constructor<?> CONSTRUCTOR;
         private static final Constructor<?> IAE_CONSTRUCTOR;
         private static final Method GET_VALUE;
@@ -81,7 +80,7 @@ public abstract class EntityFieldAccessor {
             }
         }
 
-        public static EntityFieldAccessor build(Method getter, Method setter) throws DataException {
+        public static EntityFieldAccessor build(Method getter, Method setter, AccessorClassLoader classLoader) throws DataException {
             String className = "Accessor_" + UUID.randomUUID().toString().replace('-', '_');
             String accessorName = getter.getName().startsWith("get")
                 ? getter.getName().substring(3)
@@ -160,7 +159,7 @@ public abstract class EntityFieldAccessor {
 
                 cw.visitEnd();
 
-                Class<?> klass = CLASS_LOADER.defineClass(className, cw.toByteArray());
+                Class<?> klass = classLoader.defineClass(className, cw.toByteArray());
 
                 return (EntityFieldAccessor)klass.newInstance();
             } catch (InstantiationException | IllegalAccessException | NoSuchMethodException e) {
@@ -195,15 +194,19 @@ public abstract class EntityFieldAccessor {
                 default: return null;
             }
         }
+    }
 
-        private static class MyClassLoader extends ClassLoader {
-            private MyClassLoader(ClassLoader parent) {
-                super(parent);
-            }
+    static class AccessorClassLoader extends ClassLoader {
+        // Accessors are defined in a class loader per entity type that has the model's class
+        // loader as its parent. This makes the model visible to the accessor, and allows the
+        // accessors to be unloaded together with the entity type.
 
-            public Class<?> defineClass(String name, byte[] bytes) {
-                return defineClass(name, bytes, 0, bytes.length);
-            }
+        AccessorClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> defineClass(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
         }
     }
-} 
\ No newline at end of file
+} 
\ No newline at end of file
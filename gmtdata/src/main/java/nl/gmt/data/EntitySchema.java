@@ -7,6 +7,7 @@ import org.apache.commons.lang.Validate;
 import java.util.*;
 
 public abstract class EntitySchema {
+    private final Schema schema;
     private final Map<String, EntityType> typesByName;
     private final Map<Class<?>, EntityType> typesByClass;
 
@@ -14,6 +15,8 @@ public abstract class EntitySchema {
     protected EntitySchema(Schema schema) throws DataException {
         Validate.notNull(schema, "schema");
 
+        this.schema = schema;
+
         Map<String, EntityType> typesByName = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
         Map<Class<?>, EntityType> typesByClass = new HashMap<>();
 
@@ -31,6 +34,10 @@ public abstract class EntitySchema {
 
     protected abstract EntityType[] createTypes(Schema schema);
 
+    public Schema getSchema() {
+        return schema;
+    }
+
     public Collection<EntityType> getEntityTypes() {
         return typesByName.values();
     }
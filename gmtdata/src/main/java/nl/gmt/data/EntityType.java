@@ -11,8 +11,13 @@ public class EntityType {
     private final Map<String, EntityField> fields;
     private final List<EntityIndex> indexes;
     private final Class<? extends Entity> model;
+    private volatile EntityValidationPlan validationPlan;
 
     public EntityType(Schema schema, SchemaClass schemaClass, Class<? extends Entity> model) {
+        this(schema, schemaClass, model, null);
+    }
+
+    protected EntityType(Schema schema, SchemaClass schemaClass, Class<? extends Entity> model, AccessorFactory accessorFactory) {
         Validate.notNull(schema, "schema");
         Validate.notNull(schemaClass, "schemaClass");
         Validate.notNull(model, "model");
@@ -20,19 +25,23 @@ public class EntityType {
         this.model = model;
         this.schemaClass = schemaClass;
 
+        this.fields = Collections.unmodifiableMap(buildFields(schema, new AccessorBuilder(model, accessorFactory)));
+
+        this.indexes = Collections.unmodifiableList(buildIndexes(schema));
+    }
+
+    private Map<String, EntityField> buildFields(Schema schema, AccessorBuilder accessors) {
         Map<String, EntityField> fields = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
 
-        EntityProperty idField = new EntityProperty(schemaClass.getResolvedIdProperty(), createAccessor(schemaClass.getResolvedIdProperty()), this);
+        EntityProperty idField = new EntityProperty(schemaClass.getResolvedIdProperty(), accessors.build(schemaClass.getResolvedIdProperty()), this);
 
         fields.put(idField.getFieldName(), idField);
 
-        addFields(schemaClass.getFields(), fields);
+        addFields(schemaClass.getFields(), fields, accessors);
 
-        recurseMixins(schema, schemaClass.getMixins(), fields);
+        recurseMixins(schema, schemaClass.getMixins(), fields, accessors);
 
-        this.fields = Collections.unmodifiableMap(fields);
-
-        this.indexes = Collections.unmodifiableList(buildIndexes(schema));
+        return fields;
     }
 
     private List<EntityIndex> buildIndexes(Schema schema) {
@@ -77,21 +86,21 @@ public class EntityType {
         }
     }
 
-    private void recurseMixins(Schema schema, List<String> mixins, Map<String, EntityField> fields) {
+    private void recurseMixins(Schema schema, List<String> mixins, Map<String, EntityField> fields, AccessorBuilder accessors) {
         for (String name : mixins) {
             SchemaMixin mixin = schema.getMixins().get(name);
 
-            addFields(mixin.getFields(), fields);
+            addFields(mixin.getFields(), fields, accessors);
 
-            recurseMixins(schema, mixin.getMixins(), fields);
+            recurseMixins(schema, mixin.getMixins(), fields, accessors);
         }
     }
 
-    private void addFields(Collection<? extends SchemaField> schemaFields, Map<String, EntityField> fields) {
+    private void addFields(Collection<? extends SchemaField> schemaFields, Map<String, EntityField> fields, AccessorBuilder accessors) {
         for (SchemaField schemaField : schemaFields) {
             EntityField field;
 
-            EntityFieldAccessor accessor = createAccessor(schemaField);
+            EntityFieldAccessor accessor = accessors.build(schemaField);
 
             if (schemaField instanceof SchemaProperty) {
                 field = new EntityProperty((SchemaProperty)schemaField, accessor, this);
@@ -105,28 +114,6 @@ public class EntityType {
         }
     }
 
-    private EntityFieldAccessor createAccessor(SchemaField schemaField) {
-        Method getter = null;
-        Method setter = null;
-
-        for (Method method : model.getMethods()) {
-            if (
-                method.getName().equals("get" + schemaField.getName()) ||
-                method.getName().equals("is" + schemaField.getName())
-            ) {
-                getter = method;
-            } else if (method.getName().equals("set" + schemaField.getName())) {
-                setter = method;
-            }
-        }
-
-        try {
-            return EntityFieldAccessor.createAccessor(getter, setter);
-        } catch (DataException e) {
-            throw new RuntimeException("Cannot build entity field accessor", e);
-        }
-    }
-
     public SchemaClass getSchemaClass() {
         return schemaClass;
     }
@@ -160,6 +147,26 @@ public class EntityType {
         return schemaClass.getName();
     }
 
+    EntityValidationPlan getValidationPlan() {
+        Validate.notNull(validationPlan, "Validation plan has not been built yet");
+
+        return validationPlan;
+    }
+
+    EntityValidationPlan getValidationPlan(String[] propertyNames) {
+        // The plan depends on the order of the properties of the Hibernate persister, so it's
+        // built on first use. Building it twice from different threads is harmless.
+
+        EntityValidationPlan plan = validationPlan;
+
+        if (plan == null) {
+            plan = new EntityValidationPlan(this, propertyNames);
+            validationPlan = plan;
+        }
+
+        return plan;
+    }
+
     public Class<? extends Entity> getModel() {
         return model;
     }
@@ -167,4 +174,57 @@ public class EntityType {
     public EntityProperty getId() {
         return (EntityProperty)getField("id");
     }
+
+    public interface AccessorFactory {
+        EntityFieldAccessor createAccessor(String name);
+    }
+
+    private static class AccessorBuilder {
+        private final Class<? extends Entity> model;
+        private final AccessorFactory factory;
+        private Map<String, Method> methods;
+        private EntityFieldAccessor.AccessorClassLoader classLoader;
+
+        AccessorBuilder(Class<? extends Entity> model, AccessorFactory factory) {
+            this.model = model;
+            this.factory = factory;
+        }
+
+        EntityFieldAccessor build(SchemaField schemaField) {
+            if (factory != null) {
+                EntityFieldAccessor accessor = factory.createAccessor(schemaField.getName());
+
+                if (accessor != null) {
+                    return accessor;
+                }
+            }
+
+            // Types generated by the code generator provide their accessors through a factory.
+            // Hand-written models fall back to accessors built at runtime.
+
+            if (methods == null) {
+                methods = new HashMap<>();
+
+                for (Method method : model.getMethods()) {
+                    methods.put(method.getName(), method);
+                }
+
+                classLoader = new EntityFieldAccessor.AccessorClassLoader(model.getClassLoader());
+            }
+
+            Method getter = methods.get("get" + schemaField.getName());
+
+            if (getter == null) {
+                getter = methods.get("is" + schemaField.getName());
+            }
+
+            Method setter = methods.get("set" + schemaField.getName());
+
+            try {
+                return EntityFieldAccessor.createAccessor(getter, setter, classLoader);
+            } catch (DataException e) {
+                throw new RuntimeException("Cannot build entity field accessor", e);
+            }
+        }
+    }
 }
@@ -0,0 +1,101 @@
+package nl.gmt.data;
+
+import org.apache.commons.lang.Validate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+class EntityValidationPlan {
+    private final EntityField[] fields;
+    private final boolean[] allowNull;
+    private final int[] lengths;
+    private final List<UniqueIndex> uniqueIndexes;
+
+    EntityValidationPlan(EntityType entityType, String[] propertyNames) {
+        Validate.notNull(entityType, "entityType");
+        Validate.notNull(propertyNames, "propertyNames");
+
+        fields = new EntityField[propertyNames.length];
+        allowNull = new boolean[propertyNames.length];
+        lengths = new int[propertyNames.length];
+
+        for (int i = 0; i < propertyNames.length; i++) {
+            lengths[i] = -1;
+
+            EntityField field = entityType.getField(propertyNames[i], false);
+            if (!(field instanceof EntityPhysicalField)) {
+                continue;
+            }
+
+            fields[i] = field;
+            allowNull[i] = ((EntityPhysicalField)field).isAllowNull();
+
+            if (field instanceof EntityProperty) {
+                lengths[i] = ((EntityProperty)field).getLength();
+            }
+        }
+
+        List<UniqueIndex> uniqueIndexes = new ArrayList<>();
+
+        for (EntityIndex index : entityType.getIndexes()) {
+            if (index.isUnique()) {
+                uniqueIndexes.add(new UniqueIndex(index, propertyNames));
+            }
+        }
+
+        this.uniqueIndexes = Collections.unmodifiableList(uniqueIndexes);
+    }
+
+    public int getPropertyCount() {
+        return fields.length;
+    }
+
+    public EntityField getField(int property) {
+        return fields[property];
+    }
+
+    public boolean isAllowNull(int property) {
+        return allowNull[property];
+    }
+
+    public int getLength(int property) {
+        return lengths[property];
+    }
+
+    public List<UniqueIndex> getUniqueIndexes() {
+        return uniqueIndexes;
+    }
+
+    static class UniqueIndex {
+        private final List<EntityField> fields;
+        private final int[] properties;
+
+        private UniqueIndex(EntityIndex index, String[] propertyNames) {
+            fields = index.getFields();
+            properties = new int[fields.size()];
+
+            for (int i = 0; i < properties.length; i++) {
+                properties[i] = getPropertyIndex(propertyNames, fields.get(i));
+            }
+        }
+
+        private static int getPropertyIndex(String[] propertyNames, EntityField field) {
+            for (int i = 0; i < propertyNames.length; i++) {
+                if (propertyNames[i].equals(field.getFieldName())) {
+                    return i;
+                }
+            }
+
+            throw new IllegalStateException("Cannot find property");
+        }
+
+        public List<EntityField> getFields() {
+            return fields;
+        }
+
+        public int getProperty(int index) {
+            return properties[index];
+        }
+    }
+}
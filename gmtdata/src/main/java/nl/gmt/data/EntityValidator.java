@@ -6,18 +6,18 @@ import org.hibernate.FlushMode;
 import org.hibernate.Hibernate;
 import org.hibernate.Interceptor;
 import org.hibernate.bytecode.instrumentation.spi.LazyPropertyInitializer;
-import org.hibernate.criterion.Projections;
-import org.hibernate.criterion.Restrictions;
+import org.hibernate.criterion.*;
 import org.hibernate.persister.entity.EntityPersister;
 import org.hibernate.type.Type;
 
 import java.io.Serializable;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
 
 public class EntityValidator {
+    private static final int MAX_BATCH_PARAMETERS = 1000;
+
     private final DbContext ctx;
     private final Map<EntityField, String> messages = new HashMap<>();
 
@@ -55,53 +55,15 @@ public class EntityValidator {
         String[] propertyNames = persister.getPropertyNames();
 
         if (runInterceptors) {
-            Interceptor interceptor = db.getSessionFactory().getSessionFactoryOptions().getInterceptor();
-            Type[] propertyTypes = persister.getPropertyTypes();
-
-            if (mode == EntityValidatorMode.UPDATE) {
-                interceptor.onFlushDirty(entity, (Serializable)entity.getId(), values, values, propertyNames, propertyTypes);
-            } else {
-                interceptor.onSave(entity, (Serializable)entity.getId(), values, propertyNames, propertyTypes);
-            }
+            runInterceptors(db, persister, entity, mode, values, propertyNames);
         }
 
         // Check the fields.
 
         EntityType entityType = db.getEntitySchema().getEntityType(Hibernate.getClass(entity));
+        EntityValidationPlan plan = entityType.getValidationPlan(propertyNames);
 
-        for (int i = 0; i < values.length; i++) {
-            if (assumeValid != null && assumeValid.contains(propertyNames[i])) {
-                continue;
-            }
-
-            Object value = values[i];
-            if (value == LazyPropertyInitializer.UNFETCHED_PROPERTY) {
-                continue;
-            }
-
-            EntityField field = entityType.getField(propertyNames[i]);
-            if (!(field instanceof EntityPhysicalField)) {
-                continue;
-            }
-
-            EntityPhysicalField physicalField = (EntityPhysicalField)field;
-
-            if (value == null) {
-                if (!physicalField.isAllowNull()) {
-                    messages.put(field, db.getText("gmtdata.validation.cannot-be-empty"));
-                }
-            } else if (physicalField instanceof EntityProperty) {
-                EntityProperty property = (EntityProperty)field;
-
-                if (value instanceof String) {
-                    if (property.getLength() != -1 && ((String)value).length() > property.getLength()) {
-                        messages.put(field, db.getText("gmtdata.validation.cannot-be-longer-than", property.getLength()));
-                    }
-                }
-
-                // TODO: Missing numeric validations.
-            }
-        }
+        validateFields(db, plan, values, propertyNames, assumeValid, messages);
 
         // Check unique indexes. The unique check is expensive, so skip it if we already have errors.
 
@@ -110,11 +72,7 @@ public class EntityValidator {
 
             FlushMode flushMode = null;
 
-            for (EntityIndex index : entityType.getIndexes()) {
-                if (!index.isUnique()) {
-                    continue;
-                }
-
+            for (EntityValidationPlan.UniqueIndex index : plan.getUniqueIndexes()) {
                 List<EntityField> fields = index.getFields();
 
                 // Do we have any null values?
@@ -123,23 +81,7 @@ public class EntityValidator {
                 boolean haveNull = false;
 
                 for (int i = 0; i < fields.size(); i++) {
-                    EntityField field = fields.get(i);
-
-                    // Find the value of the field.
-
-                    int fieldIndex = -1;
-                    for (int j = 0; j < propertyNames.length; j++) {
-                        if (propertyNames[j].equals(field.getFieldName())) {
-                            fieldIndex = j;
-                            break;
-                        }
-                    }
-
-                    if (fieldIndex == -1) {
-                        throw new IllegalStateException("Cannot find property");
-                    }
-
-                    Object value = values[fieldIndex];
+                    Object value = values[index.getProperty(i)];
                     indexValues[i] = value;
 
                     if (value == null) {
@@ -164,46 +106,364 @@ public class EntityValidator {
                     ctx.getSession().setFlushMode(FlushMode.MANUAL);
                 }
 
-                // Build a query to count the number of entities that have unique index combination.
+                if (hasUniqueIndexConflict(entityType, fields, indexValues, entity, mode)) {
+                    addUniqueIndexConflict(db, fields, messages);
+                }
+            }
 
-                Criteria criteria = ctx.createCriteria(entityType.getModel());
+            // Restore the flush mode if we changed it.
 
-                for (int i = 0; i < fields.size(); i++) {
-                    EntityField field = fields.get(i);
+            if (flushMode != null) {
+                ctx.getSession().setFlushMode(flushMode);
+            }
+        }
+    }
 
-                    Object value = indexValues[i];
+    public Map<Entity, Map<EntityField, String>> validateAll(Collection<? extends Entity> entities, EntityValidatorMode mode) {
+        return validateAll(entities, mode, false);
+    }
 
-                    if (value == null) {
-                        criteria.add(Restrictions.isNull(field.getFieldName()));
-                    } else {
-                        criteria.add(Restrictions.eq(field.getFieldName(), value));
+    @SuppressWarnings("unchecked")
+    public Map<Entity, Map<EntityField, String>> validateAll(Collection<? extends Entity> entities, EntityValidatorMode mode, boolean runInterceptors) {
+        Validate.notNull(entities, "entities");
+        Validate.notNull(mode, "mode");
+
+        DbConnection db = ctx.getConnection();
+
+        // Entities are new most of the time, so they don't have an ID yet and can't be compared.
+
+        Map<Entity, Map<EntityField, String>> result = new IdentityHashMap<>();
+        Map<EntityType, List<BatchEntry>> batches = new LinkedHashMap<>();
+
+        for (Entity entity : entities) {
+            Validate.notNull(entity, "entity");
+
+            EntityPersister persister = (EntityPersister)db.getSessionFactory().getClassMetadata(Hibernate.getClass(entity));
+            Object[] values = persister.getPropertyValues(entity);
+            String[] propertyNames = persister.getPropertyNames();
+
+            if (runInterceptors) {
+                runInterceptors(db, persister, entity, mode, values, propertyNames);
+            }
+
+            EntityType entityType = db.getEntitySchema().getEntityType(Hibernate.getClass(entity));
+            Map<EntityField, String> messages = new HashMap<>();
+
+            result.put(entity, messages);
+
+            validateFields(db, entityType.getValidationPlan(propertyNames), values, propertyNames, null, messages);
+
+            // The unique check is expensive, so skip it for entities that already have errors.
+
+            if (messages.size() == 0) {
+                List<BatchEntry> batch = batches.get(entityType);
+                if (batch == null) {
+                    batch = new ArrayList<>();
+                    batches.put(entityType, batch);
+                }
+
+                batch.add(new BatchEntry(entity, values, messages));
+            }
+        }
+
+        boolean skipNullInUniqueIndex = db.getDriver().skipNullInUniqueIndex();
+
+        FlushMode flushMode = null;
+
+        for (Map.Entry<EntityType, List<BatchEntry>> batch : batches.entrySet()) {
+            EntityType entityType = batch.getKey();
+            EntityValidationPlan plan = entityType.getValidationPlan();
+
+            for (EntityValidationPlan.UniqueIndex index : plan.getUniqueIndexes()) {
+                List<EntityField> fields = index.getFields();
+
+                // Group the entities by their index values. Entities that share the same values
+                // conflict with each other. Values that only the database considers equal, e.g.
+                // strings that differ in case, aren't found here; like validate, that's left to
+                // the database when the entities are saved.
+
+                Map<List<Object>, List<BatchEntry>> entriesByKey = new HashMap<>();
+
+                for (BatchEntry entry : batch.getValue()) {
+                    List<Object> key = new ArrayList<>(fields.size());
+                    boolean haveNull = false;
+
+                    for (int i = 0; i < fields.size(); i++) {
+                        Object value = getKeyValue(entry.values[index.getProperty(i)]);
+                        key.add(value);
+
+                        if (value == null) {
+                            haveNull = true;
+                        }
+                    }
+
+                    if (skipNullInUniqueIndex && haveNull) {
+                        continue;
+                    }
+
+                    List<BatchEntry> entries = entriesByKey.get(key);
+                    if (entries == null) {
+                        entries = new ArrayList<>();
+                        entriesByKey.put(key, entries);
+                    }
+
+                    entries.add(entry);
+                }
+
+                if (entriesByKey.size() == 0) {
+                    continue;
+                }
+
+                for (List<BatchEntry> entries : entriesByKey.values()) {
+                    if (entries.size() > 1) {
+                        for (BatchEntry entry : entries) {
+                            addUniqueIndexConflict(db, fields, entry.messages);
+                        }
                     }
                 }
 
-                // Ignore the current entity when we're updating.
+                // See validate for why auto flush is disabled.
 
-                if (mode == EntityValidatorMode.UPDATE) {
-                    criteria.add(Restrictions.not(Restrictions.eq(entityType.getId().getFieldName(), entity.getId())));
+                if (flushMode == null) {
+                    flushMode = ctx.getSession().getFlushMode();
+                    ctx.getSession().setFlushMode(FlushMode.MANUAL);
                 }
 
-                criteria.setProjection(Projections.rowCount());
+                // Find the rows that match any of the keys. The keys are queried in chunks to stay
+                // below the parameter limits of the databases.
+
+                List<List<Object>> keys = new ArrayList<>(entriesByKey.keySet());
+                int chunkSize = Math.max(1, MAX_BATCH_PARAMETERS / fields.size());
 
-                int rowCount = ((Number)criteria.uniqueResult()).intValue();
+                for (int offset = 0; offset < keys.size(); offset += chunkSize) {
+                    List<List<Object>> chunk = keys.subList(offset, Math.min(offset + chunkSize, keys.size()));
 
-                if (rowCount > 0) {
-                    // We add a unique index message on all fields of the unique index.
+                    Criteria criteria = ctx.createCriteria(entityType.getModel());
+                    Disjunction disjunction = Restrictions.disjunction();
+                    ProjectionList projection = Projections.projectionList();
+
+                    projection.add(Projections.id());
 
                     for (EntityField field : fields) {
-                        messages.put(field, db.getText("gmtdata.validation.unique-index-conflict"));
+                        projection.add(Projections.property(getKeyPath(field)));
+                    }
+
+                    for (List<Object> key : chunk) {
+                        Conjunction conjunction = Restrictions.conjunction();
+
+                        for (int i = 0; i < fields.size(); i++) {
+                            Object value = key.get(i);
+
+                            if (value == null) {
+                                conjunction.add(Restrictions.isNull(getKeyPath(fields.get(i))));
+                            } else {
+                                conjunction.add(Restrictions.eq(getKeyPath(fields.get(i)), value));
+                            }
+                        }
+
+                        disjunction.add(conjunction);
+                    }
+
+                    criteria.add(disjunction);
+                    criteria.setProjection(projection);
+
+                    List<Object[]> rows = (List<Object[]>)criteria.list();
+
+                    if (rows.size() == 0) {
+                        continue;
+                    }
+
+                    // The database compares the values by its own rules, e.g. strings by the
+                    // collation of the column. A row can then match a key that isn't equal to it
+                    // here, so the entries of the chunk are checked one by one. Only keys of
+                    // types that compare the same everywhere are matched to the rows directly.
+
+                    if (!isExactKeys(chunk)) {
+                        for (List<Object> key : chunk) {
+                            for (BatchEntry entry : entriesByKey.get(key)) {
+                                if (hasUniqueIndexConflict(entityType, fields, key.toArray(), entry.entity, mode)) {
+                                    addUniqueIndexConflict(db, fields, entry.messages);
+                                }
+                            }
+                        }
+
+                        continue;
+                    }
+
+                    for (Object[] row : rows) {
+                        List<Object> rowKey = new ArrayList<>(fields.size());
+
+                        for (int i = 1; i < row.length; i++) {
+                            rowKey.add(getKeyValue(row[i]));
+                        }
+
+                        List<BatchEntry> entries = entriesByKey.get(rowKey);
+                        if (entries == null) {
+                            continue;
+                        }
+
+                        for (BatchEntry entry : entries) {
+                            // Ignore the entity itself when we're updating.
+
+                            if (mode == EntityValidatorMode.UPDATE && row[0].equals(entry.entity.getId())) {
+                                continue;
+                            }
+
+                            addUniqueIndexConflict(db, fields, entry.messages);
+                        }
                     }
                 }
             }
+        }
 
-            // Restore the flush mode if we changed it.
+        if (flushMode != null) {
+            ctx.getSession().setFlushMode(flushMode);
+        }
 
-            if (flushMode != null) {
-                ctx.getSession().setFlushMode(flushMode);
+        return result;
+    }
+
+    private static String getKeyPath(EntityField field) {
+        // Compare foreign parents on their ID so the parents don't have to be loaded.
+
+        if (field instanceof EntityForeignParent) {
+            return field.getFieldName() + ".id";
+        }
+
+        return field.getFieldName();
+    }
+
+    private static Object getKeyValue(Object value) {
+        if (value instanceof Entity) {
+            return ((Entity)value).getId();
+        }
+
+        // Decimals are equal in the database when their values are, regardless of the scale.
+
+        if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal)value;
+
+            if (decimal.signum() == 0) {
+                return BigDecimal.ZERO;
+            }
+
+            decimal = decimal.stripTrailingZeros();
+
+            return decimal.scale() < 0 ? decimal.setScale(0) : decimal;
+        }
+
+        return value;
+    }
+
+    private static boolean isExactKeys(List<List<Object>> keys) {
+        for (List<Object> key : keys) {
+            for (Object value : key) {
+                if (!(
+                    value == null ||
+                    value instanceof Integer ||
+                    value instanceof Long ||
+                    value instanceof Short ||
+                    value instanceof Byte ||
+                    value instanceof BigInteger ||
+                    value instanceof BigDecimal ||
+                    value instanceof Boolean ||
+                    value instanceof UUID ||
+                    value instanceof Enum
+                )) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private boolean hasUniqueIndexConflict(EntityType entityType, List<EntityField> fields, Object[] values, Entity entity, EntityValidatorMode mode) {
+        // Build a query to count the number of entities that have unique index combination.
+
+        Criteria criteria = ctx.createCriteria(entityType.getModel());
+
+        for (int i = 0; i < fields.size(); i++) {
+            Object value = getKeyValue(values[i]);
+
+            if (value == null) {
+                criteria.add(Restrictions.isNull(getKeyPath(fields.get(i))));
+            } else {
+                criteria.add(Restrictions.eq(getKeyPath(fields.get(i)), value));
             }
         }
+
+        // Ignore the current entity when we're updating.
+
+        if (mode == EntityValidatorMode.UPDATE) {
+            criteria.add(Restrictions.not(Restrictions.eq(entityType.getId().getFieldName(), entity.getId())));
+        }
+
+        criteria.setProjection(Projections.rowCount());
+
+        return ((Number)criteria.uniqueResult()).intValue() > 0;
+    }
+
+    private static void validateFields(DbConnection db, EntityValidationPlan plan, Object[] values, String[] propertyNames, Set<String> assumeValid, Map<EntityField, String> messages) {
+        for (int i = 0; i < values.length; i++) {
+            EntityField field = plan.getField(i);
+            if (field == null) {
+                continue;
+            }
+
+            if (assumeValid != null && assumeValid.contains(propertyNames[i])) {
+                continue;
+            }
+
+            Object value = values[i];
+            if (value == LazyPropertyInitializer.UNFETCHED_PROPERTY) {
+                continue;
+            }
+
+            if (value == null) {
+                if (!plan.isAllowNull(i)) {
+                    messages.put(field, db.getText("gmtdata.validation.cannot-be-empty"));
+                }
+            } else {
+                int length = plan.getLength(i);
+
+                if (value instanceof String && length != -1 && ((String)value).length() > length) {
+                    messages.put(field, db.getText("gmtdata.validation.cannot-be-longer-than", length));
+                }
+
+                // TODO: Missing numeric validations.
+            }
+        }
+    }
+
+    private static void runInterceptors(DbConnection db, EntityPersister persister, Entity entity, EntityValidatorMode mode, Object[] values, String[] propertyNames) {
+        Interceptor interceptor = db.getSessionFactory().getSessionFactoryOptions().getInterceptor();
+        Type[] propertyTypes = persister.getPropertyTypes();
+
+        if (mode == EntityValidatorMode.UPDATE) {
+            interceptor.onFlushDirty(entity, (Serializable)entity.getId(), values, values, propertyNames, propertyTypes);
+        } else {
+            interceptor.onSave(entity, (Serializable)entity.getId(), values, propertyNames, propertyTypes);
+        }
+    }
+
+    private static void addUniqueIndexConflict(DbConnection db, List<EntityField> fields, Map<EntityField, String> messages) {
+        // We add a unique index message on all fields of the unique index.
+
+        for (EntityField field : fields) {
+            messages.put(field, db.getText("gmtdata.validation.unique-index-conflict"));
+        }
+    }
+
+    private static class BatchEntry {
+        private final Entity entity;
+        private final Object[] values;
+        private final Map<EntityField, String> messages;
+
+        private BatchEntry(Entity entity, Object[] values, Map<EntityField, String> messages) {
+            this.entity = entity;
+            this.values = values;
+            this.messages = messages;
+        }
     }
 }
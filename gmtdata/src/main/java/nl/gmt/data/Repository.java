@@ -8,9 +8,14 @@ public interface Repository<T extends Entity> {
 
     DbContext getContext();
     void setContext(DbContext context);
+    DbBulkContext getBulkContext();
+    void setBulkContext(DbBulkContext bulkContext);
     List<T> getAll();
     int getCount();
     T get(Serializable id);
     T find(Serializable id);
     T load(Serializable id);
+    void insertAll(Iterable<? extends T> entities);
+    void updateAll(Iterable<? extends T> entities);
+    void deleteAll(Iterable<? extends T> entities);
 }
@@ -0,0 +1,5 @@
+package nl.gmt.data;
+
+public interface RepositoryFactory<T extends Repository> {
+    T createRepository();
+}
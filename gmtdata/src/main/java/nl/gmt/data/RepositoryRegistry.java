@@ -0,0 +1,5 @@
+package nl.gmt.data;
+
+public interface RepositoryRegistry {
+    void register(RepositoryService repositoryService);
+}
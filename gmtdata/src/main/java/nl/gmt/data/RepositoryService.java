@@ -7,13 +7,30 @@ import org.reflections.util.ConfigurationBuilder;
 
 import java.lang.reflect.Modifier;
 import java.net.URL;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 public class RepositoryService {
-    private final Map<Class<? extends Repository>, Class<? extends Repository>> classMap = new HashMap<>();
+    private final Map<Class<? extends Repository>, RepositoryFactory<?>> factories = new HashMap<>();
+
+    public static RepositoryService load() {
+        return load(Thread.currentThread().getContextClassLoader());
+    }
+
+    public static RepositoryService load(ClassLoader classLoader) {
+        // The code generator generates a registry per package, so the repositories are found
+        // without scanning the class path.
+
+        RepositoryService repositoryService = new RepositoryService();
+
+        for (RepositoryRegistry registry : ServiceLoader.load(RepositoryRegistry.class, classLoader)) {
+            registry.register(repositoryService);
+        }
+
+        return repositoryService;
+    }
+
+    private RepositoryService() {
+    }
 
     public RepositoryService(URL... urls) {
         Validate.notNull(urls, "urls");
@@ -50,7 +67,7 @@ public class RepositoryService {
 
             classes.remove(implementation);
 
-            classMap.put(repositoryInterface, implementation);
+            factories.put(repositoryInterface, new ReflectionRepositoryFactory(implementation));
         }
 
         if (classes.size() > 0) {
@@ -70,16 +87,40 @@ public class RepositoryService {
         }
     }
 
+    public <T extends Repository> void addRepository(Class<T> repositoryClass, RepositoryFactory<? extends T> factory) {
+        Validate.notNull(repositoryClass, "repositoryClass");
+        Validate.notNull(factory, "factory");
+
+        if (factories.containsKey(repositoryClass)) {
+            throw new IllegalStateException(String.format("Repository class '%s' is already mapped", repositoryClass));
+        }
+
+        factories.put(repositoryClass, factory);
+    }
+
     @SuppressWarnings({"unchecked", "ConstantConditions"})
     public <T extends Repository> T getRepository(Class<T> repositoryClass) {
-        Class<T> implementation = (Class<T>)classMap.get(repositoryClass);
+        RepositoryFactory<T> factory = (RepositoryFactory<T>)factories.get(repositoryClass);
+
+        Validate.isTrue(factory != null, String.format("Repository class '%s' is not mapped", repositoryClass));
 
-        Validate.isTrue(implementation != null, String.format("Repository class '%s' is not mapped", repositoryClass));
+        return factory.createRepository();
+    }
+
+    private static class ReflectionRepositoryFactory implements RepositoryFactory<Repository> {
+        private final Class<? extends Repository> implementation;
 
-        try {
-            return implementation.newInstance();
-        } catch (InstantiationException | IllegalAccessException e) {
-            throw new IllegalStateException(e);
+        private ReflectionRepositoryFactory(Class<? extends Repository> implementation) {
+            this.implementation = implementation;
+        }
+
+        @Override
+        public Repository createRepository() {
+            try {
+                return implementation.newInstance();
+            } catch (InstantiationException | IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
         }
     }
 }
@@ -28,6 +28,10 @@ public abstract class DatabaseDriver {
     public void configure(DbConnection db) {
     }
 
+    public int getStreamingFetchSize() {
+        return 1000;
+    }
+
     public Connection createConnection(String connectionString) throws DataException {
         try {
             Class.forName(getConnectionType());
@@ -3,11 +3,11 @@ package nl.gmt.data.drivers;
 import nl.gmt.data.DbConfiguration;
 import nl.gmt.data.migrate.Manifest;
 import nl.gmt.data.migrate.SchemaMigrateException;
+import nl.gmt.data.pool.ConnectionPoolProvider;
+import nl.gmt.data.pool.LocalConnectionPoolProvider;
 import nl.gmt.data.schema.Schema;
 import nl.gmt.data.schema.SchemaIdAutoIncrement;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
-import org.hibernate.c3p0.internal.C3P0ConnectionProvider;
-import org.hibernate.cfg.AvailableSettings;
 
 import java.sql.*;
 import java.util.UUID;
@@ -16,7 +16,7 @@ public abstract class GenericDatabaseDriver extends DatabaseDriver {
     @Override
     public Manifest readManifest(Connection connection) throws SchemaMigrateException {
         try (Statement stmt = connection.createStatement()) {
-            try (ResultSet rs = stmt.executeQuery("SELECT * FROM GmtMigrate")) {
+            try (ResultSet rs = stmt.executeQuery("SELECT * FROM " + quoteIdentifier(Manifest.TABLE_NAME))) {
                 while (rs.next()) {
                     return new Manifest(
                         rs.getString("Version"),
@@ -34,8 +34,8 @@ public abstract class GenericDatabaseDriver extends DatabaseDriver {
     private String getSchemaHash(ResultSet rs) throws SQLException {
         ResultSetMetaData metaData = rs.getMetaData();
 
-        for (int i = 0; i < metaData.getColumnCount(); i++) {
-            if (metaData.getColumnName(i).equals("SchemaHash"))
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (metaData.getColumnName(i).equalsIgnoreCase("SchemaHash"))
                 return rs.getString(i);
         }
 
@@ -48,12 +48,15 @@ public abstract class GenericDatabaseDriver extends DatabaseDriver {
             String sql;
             boolean generateId = false;
 
+            String table = quoteIdentifier(Manifest.TABLE_NAME);
+            String columns = quoteIdentifier("Version") + ", " + quoteIdentifier("SchemaHash");
+
             if (readManifest(connection) != null) {
-                sql = "UPDATE GmtMigrate SET Version = ?, SchemaHash = ?";
+                sql = "UPDATE " + table + " SET " + quoteIdentifier("Version") + " = ?, " + quoteIdentifier("SchemaHash") + " = ?";
             } else if (schema.getIdProperty().getAutoIncrement() == SchemaIdAutoIncrement.YES) {
-                sql = "INSERT INTO GmtMigrate (Version, SchemaHash) VALUES (?, ?)";
+                sql = "INSERT INTO " + table + " (" + columns + ") VALUES (?, ?)";
             } else {
-                sql = "INSERT INTO GmtMigrate (Version, SchemaHash, " + schema.getIdProperty().getName() + ") VALUES (?, ?, ?)";
+                sql = "INSERT INTO " + table + " (" + columns + ", " + quoteIdentifier(schema.getIdProperty().getName()) + ") VALUES (?, ?, ?)";
                 generateId = true;
             }
 
@@ -77,31 +80,25 @@ public abstract class GenericDatabaseDriver extends DatabaseDriver {
 
                 stmt.executeUpdate();
 
-                connection.commit();
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
             }
         } catch (SQLException e) {
             throw new SchemaMigrateException("Cannot write manifest", e);
         }
     }
 
-    protected void configureConnectionPooling(StandardServiceRegistryBuilder serviceRegistryBuilder, DbConfiguration configuration, String preferredTestQuery) {
-        int minSize = configuration.getConnectionPoolMinSize();
-        if (minSize == -1) {
-            minSize = 0;
-        }
-        int maxSize = configuration.getConnectionPoolMaxSize();
-        if (maxSize == -1) {
-            maxSize = 15;
+    protected String quoteIdentifier(String identifier) {
+        return identifier;
+    }
+
+    protected void configureConnectionPooling(StandardServiceRegistryBuilder serviceRegistryBuilder, DbConfiguration configuration) {
+        ConnectionPoolProvider provider = configuration.getConnectionPoolProvider();
+        if (provider == null) {
+            provider = new LocalConnectionPoolProvider();
         }
 
-        serviceRegistryBuilder
-            .applySetting(AvailableSettings.CONNECTION_PROVIDER, C3P0ConnectionProvider.class.getName())
-            .applySetting(AvailableSettings.C3P0_ACQUIRE_INCREMENT, "3")
-            .applySetting(AvailableSettings.C3P0_IDLE_TEST_PERIOD, "14400")
-            .applySetting(AvailableSettings.C3P0_MIN_SIZE, Integer.toString(minSize))
-            .applySetting(AvailableSettings.C3P0_MAX_SIZE, Integer.toString(maxSize))
-            .applySetting(AvailableSettings.C3P0_MAX_STATEMENTS, "0")
-            .applySetting(AvailableSettings.C3P0_TIMEOUT, "25200")
-            .applySetting(AvailableSettings.C3P0_CONFIG_PREFIX + ".preferredTestQuery", preferredTestQuery);
+        provider.configure(serviceRegistryBuilder, configuration);
     }
 }
@@ -6,9 +6,12 @@ import nl.gmt.data.migrate.SqlGenerator;
 import nl.gmt.data.schema.Schema;
 import nl.gmt.data.schema.SchemaRules;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.dialect.MySQL5Dialect;
 
 public class MySqlDatabaseDriver extends GenericDatabaseDriver {
+    private boolean cursorFetch;
+
     @Override
     public String getConnectionType() {
         return "com.mysql.jdbc.Driver";
@@ -24,6 +27,19 @@ public class MySqlDatabaseDriver extends GenericDatabaseDriver {
         return true;
     }
 
+    @Override
+    public int getStreamingFetchSize() {
+        // Without cursor fetch, Connector/J only streams rows with this fetch size; anything else
+        // reads the complete result set. The connection can't be used for other statements until
+        // the stream is closed, so e.g. lazy loads while streaming fail.
+
+        if (!cursorFetch) {
+            return Integer.MIN_VALUE;
+        }
+
+        return super.getStreamingFetchSize();
+    }
+
     @Override
     public SqlGenerator createSqlGenerator(Schema schema) throws SchemaMigrateException {
         return new nl.gmt.data.migrate.mysql.SqlGenerator(schema);
@@ -36,6 +52,15 @@ public class MySqlDatabaseDriver extends GenericDatabaseDriver {
 
     @Override
     public void createConfiguration(StandardServiceRegistryBuilder serviceRegistryBuilder, DbConfiguration configuration) {
-        configureConnectionPooling(serviceRegistryBuilder, configuration, "SELECT 1;");
+        // Cursor fetch lets streams use a server side cursor, but it also makes every prepared
+        // statement a server side one, so it's only enabled when configured.
+
+        cursorFetch = configuration.isEnableMySqlCursorFetch();
+
+        if (cursorFetch) {
+            serviceRegistryBuilder.applySetting(AvailableSettings.CONNECTION_PREFIX + ".useCursorFetch", "true");
+        }
+
+        configureConnectionPooling(serviceRegistryBuilder, configuration);
     }
 }
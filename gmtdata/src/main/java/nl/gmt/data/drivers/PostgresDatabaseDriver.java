@@ -24,6 +24,13 @@ public class PostgresDatabaseDriver extends GenericDatabaseDriver {
         return true;
     }
 
+    @Override
+    protected String quoteIdentifier(String identifier) {
+        // Tables are created with quoted names, so they have to be referenced quoted too.
+
+        return "\"" + identifier + "\"";
+    }
+
     @Override
     public SqlGenerator createSqlGenerator(Schema schema) throws SchemaMigrateException {
         return new nl.gmt.data.migrate.postgres.SqlGenerator(schema);
@@ -36,6 +43,6 @@ public class PostgresDatabaseDriver extends GenericDatabaseDriver {
 
     @Override
     public void createConfiguration(StandardServiceRegistryBuilder serviceRegistryBuilder, DbConfiguration configuration) {
-        configureConnectionPooling(serviceRegistryBuilder, configuration, "SELECT 1;");
+        configureConnectionPooling(serviceRegistryBuilder, configuration);
     }
 }
@@ -1,17 +1,31 @@
 package nl.gmt.data.drivers;
 
-import nl.gmt.data.DbConnection;
-import nl.gmt.data.DbContextTransition;
+import nl.gmt.data.*;
 import nl.gmt.data.migrate.SchemaMigrateException;
 import nl.gmt.data.migrate.SqlGenerator;
 import nl.gmt.data.schema.Schema;
 import nl.gmt.data.schema.SchemaRules;
 import nl.gmt.data.support.DelegateListener;
+import org.apache.commons.lang.StringUtils;
+import org.hibernate.HibernateException;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.dialect.SQLiteDialect;
-
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jdbc.Work;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class SQLiteDatabaseDriver extends GenericDatabaseDriver {
+    private DbSQLiteConcurrency concurrency = DbSQLiteConcurrency.SERIALIZED;
+    private Properties connectionProperties = new Properties();
+
     @Override
     public String getConnectionType() {
         return SQLiteDriver.class.getName();
@@ -37,6 +51,60 @@ public class SQLiteDatabaseDriver extends GenericDatabaseDriver {
         return new nl.gmt.data.migrate.sqlite.SchemaRules();
     }
 
+    @Override
+    public void createConfiguration(StandardServiceRegistryBuilder serviceRegistryBuilder, DbConfiguration configuration) {
+        concurrency = configuration.getSQLiteConcurrency();
+        if (concurrency == null) {
+            concurrency = DbSQLiteConcurrency.SERIALIZED;
+        }
+
+        // Explicitly set PRAGMAs override the profile. WAL concurrency depends on the journal
+        // mode, so that can't be overridden.
+
+        Map<String, String> pragmas = new LinkedHashMap<>();
+
+        if (configuration.getSQLiteProfile() != null) {
+            pragmas.putAll(configuration.getSQLiteProfile().getPragmas());
+        }
+
+        pragmas.putAll(configuration.getSQLitePragmas());
+
+        if (concurrency == DbSQLiteConcurrency.WAL) {
+            pragmas.put("journal_mode", "WAL");
+        }
+
+        connectionProperties = new Properties();
+
+        for (Map.Entry<String, String> entry : pragmas.entrySet()) {
+            connectionProperties.setProperty(SQLiteDriver.PRAGMA_PREFIX + entry.getKey(), entry.getValue());
+        }
+
+        if (pragmas.size() > 0) {
+            connectionProperties.setProperty(SQLiteDriver.PRAGMA_ORDER, StringUtils.join(pragmas.keySet(), ","));
+        }
+
+        if (configuration.getSQLiteBusyTimeout() != -1) {
+            connectionProperties.setProperty("busy_timeout", Integer.toString(configuration.getSQLiteBusyTimeout()));
+        }
+
+        // These are handed to SQLiteDriver when connections are opened.
+
+        for (String name : connectionProperties.stringPropertyNames()) {
+            serviceRegistryBuilder.applySetting(AvailableSettings.CONNECTION_PREFIX + "." + name, connectionProperties.getProperty(name));
+        }
+    }
+
+    @Override
+    public Connection createConnection(String connectionString) throws DataException {
+        // Connections for migrations get the same PRAGMAs as the ones Hibernate opens.
+
+        try {
+            return new SQLiteDriver().connect(connectionString, connectionProperties);
+        } catch (Throwable e) {
+            throw new DataException("Cannot open connection", e);
+        }
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public void configure(DbConnection db) {
@@ -44,7 +112,8 @@ public class SQLiteDatabaseDriver extends GenericDatabaseDriver {
         // from multiple threads, we may get an exception when a second thread tries to
         // start a transaction while the first thread is in a transaction. A simple solution
         // which gives very little issues is to synchronize all transactions, which this
-        // listener does.
+        // listener does. With WAL journaling readers don't block writers or each other,
+        // so only contexts that can write are synchronized.
 
         db.addContextTransitioned(new DelegateListener<DbContextTransition>() {
             private final ReentrantLock lock = new ReentrantLock();
@@ -52,6 +121,10 @@ public class SQLiteDatabaseDriver extends GenericDatabaseDriver {
 
             @Override
             public void call(Object sender, DbContextTransition transition) {
+                if (concurrency == DbSQLiteConcurrency.WAL && isReader(sender)) {
+                    return;
+                }
+
                 switch (transition) {
                     case OPENING:
                         lock.lock();
@@ -67,6 +140,12 @@ public class SQLiteDatabaseDriver extends GenericDatabaseDriver {
                         taken = true;
                         break;
 
+                    case OPENED:
+                        if (concurrency == DbSQLiteConcurrency.WAL) {
+                            beginImmediate(sender);
+                        }
+                        break;
+
                     case CLOSED:
                         taken = false;
 
@@ -76,4 +155,44 @@ public class SQLiteDatabaseDriver extends GenericDatabaseDriver {
             }
         });
     }
+
+    private boolean isReader(Object sender) {
+        return sender instanceof DbContext && ((DbContext)sender).isReadOnly();
+    }
+
+    private void beginImmediate(Object sender) {
+        // The lock only synchronizes writers in this process. The transaction the JDBC driver
+        // started is deferred, which can't be upgraded to a write transaction once another
+        // process has written to the database. It's restarted as an immediate transaction so
+        // the write lock is taken up front, waiting for the busy timeout if necessary.
+
+        Work work = new Work() {
+            @Override
+            public void execute(Connection connection) throws SQLException {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("ROLLBACK");
+
+                    try {
+                        stmt.execute("BEGIN IMMEDIATE");
+                    } catch (SQLException e) {
+                        // The JDBC driver expects a transaction to be open.
+
+                        stmt.execute("BEGIN");
+
+                        throw e;
+                    }
+                }
+            }
+        };
+
+        try {
+            if (sender instanceof DbContext) {
+                ((DbContext)sender).getSession().doWork(work);
+            } else if (sender instanceof DbBulkContext) {
+                work.execute(((SessionImplementor)((DbBulkContext)sender).getSession()).getJdbcCoordinator().getLogicalConnection().getPhysicalConnection());
+            }
+        } catch (SQLException e) {
+            throw new HibernateException("Cannot begin immediate transaction", e);
+        }
+    }
 }
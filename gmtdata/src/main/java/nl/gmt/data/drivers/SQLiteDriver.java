@@ -3,16 +3,16 @@ package nl.gmt.data.drivers;
 import org.apache.commons.lang.Validate;
 
 import java.sql.*;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Properties;
+import java.util.*;
 import java.util.logging.Logger;
 
 public class SQLiteDriver implements Driver {
-    private static Map<String, String> PRAGMAS;
+    public static final String PRAGMA_PREFIX = "pragma.";
+    public static final String PRAGMA_ORDER = "pragma_order";
+
+    private static volatile Map<String, String> DEFAULT_PRAGMAS;
 
     private final Driver driver;
-    private SQLiteDatabaseDriver databaseDriver;
 
     public SQLiteDriver() throws ClassNotFoundException, IllegalAccessException, InstantiationException {
         driver = (Driver)Class.forName("org.sqlite.JDBC").newInstance();
@@ -20,30 +20,77 @@ public class SQLiteDriver implements Driver {
 
     @Override
     public Connection connect(String s, Properties properties) throws SQLException {
-        Connection connection = driver.connect(s, properties);
+        // PRAGMAs are passed as connection properties so every database can be configured
+        // separately. They're stripped before the properties go to the SQLite driver.
+        // Some PRAGMAs must come before others, e.g. page_size before journal_mode = WAL.
+        // Properties don't keep their order, so the order is passed separately. PRAGMAs that
+        // aren't in it are executed after these, by name. The PRAGMAs set through setPragma
+        // come first and are overridden by the ones of the connection.
+
+        Properties connectionProperties = new Properties();
+        Map<String, String> pragmas = new LinkedHashMap<>();
+
+        Map<String, String> defaultPragmas = DEFAULT_PRAGMAS;
+        if (defaultPragmas != null) {
+            pragmas.putAll(defaultPragmas);
+        }
 
-        initializeConnection(connection);
+        if (properties != null) {
+            String order = properties.getProperty(PRAGMA_ORDER);
+            Set<String> overridden = new HashSet<>();
+
+            if (order != null) {
+                for (String pragma : order.split(",")) {
+                    String value = properties.getProperty(PRAGMA_PREFIX + pragma);
+                    if (value != null) {
+                        pragmas.put(pragma, value);
+                        overridden.add(pragma);
+                    }
+                }
+            }
 
-        return connection;
-    }
+            List<String> names = new ArrayList<>(properties.stringPropertyNames());
+
+            Collections.sort(names);
+
+            for (String name : names) {
+                if (name.equals(PRAGMA_ORDER)) {
+                    continue;
+                }
+
+                if (name.startsWith(PRAGMA_PREFIX)) {
+                    String pragma = name.substring(PRAGMA_PREFIX.length());
+
+                    if (!overridden.contains(pragma)) {
+                        pragmas.put(pragma, properties.getProperty(name));
+                    }
+                } else {
+                    connectionProperties.setProperty(name, properties.getProperty(name));
+                }
+            }
+        }
 
-    void initializeConnection(Connection connection) throws SQLException {
-        // TODO: This is a very dirty construction. What we're doing here is that we're using a static map with
-        // configuration to configure the SQLite connection. The problem here is that it's static and not associated
-        // e.g. with the SQLiteDatabaseDriver, what it should be. The reason for this construction is that I could not
-        // find a way to decently associated the SQLiteDatabaseDriver instance with this class. Suggestions are welcome.
+        Connection connection = driver.connect(s, connectionProperties);
 
-        Map<String, String> pragmas = PRAGMAS;
+        if (connection != null && pragmas.size() > 0) {
+            try {
+                initializeConnection(connection, pragmas);
+            } catch (SQLException e) {
+                connection.close();
 
-        if (pragmas == null) {
-            return;
+                throw e;
+            }
         }
 
-        for (Map.Entry<String, String> entry : pragmas.entrySet()) {
-            String sql = "PRAGMA " + entry.getKey() + " = " + entry.getValue();
+        return connection;
+    }
+
+    private void initializeConnection(Connection connection, Map<String, String> pragmas) throws SQLException {
+        // PRAGMAs can't take parameters, so they're all executed through a single statement.
 
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                stmt.execute();
+        try (Statement stmt = connection.createStatement()) {
+            for (Map.Entry<String, String> entry : pragmas.entrySet()) {
+                stmt.execute("PRAGMA " + entry.getKey() + " = " + entry.getValue());
             }
         }
     }
@@ -78,36 +125,31 @@ public class SQLiteDriver implements Driver {
         return driver.getParentLogger();
     }
 
+    // PRAGMAs for all connections. Use DbConfiguration.setSQLitePragma to configure them per
+    // connection instead.
+
+    @Deprecated
     public static void setPragma(String pragma, String value) {
         Validate.notNull(pragma, "pragma");
         Validate.notNull(value, "value");
 
-        // We build a new hash set every time we add a value to not have to synchronize access to it.
-
-        Map<String, String> pragmas = PRAGMAS;
+        // A new map is built on every change so connect doesn't have to synchronize on it.
 
-        if (pragmas != null) {
-            pragmas = new HashMap<>(pragmas);
-        } else {
-            pragmas = new HashMap<>();
-        }
+        synchronized (SQLiteDriver.class) {
+            Map<String, String> pragmas = DEFAULT_PRAGMAS != null ? new LinkedHashMap<>(DEFAULT_PRAGMAS) : new LinkedHashMap<String, String>();
 
-        if (value == null) {
-            pragmas.remove(pragma);
-        } else {
             pragmas.put(pragma, value);
-        }
 
-        if (pragmas.size() == 0) {
-            PRAGMAS = null;
-        } else {
-            PRAGMAS = pragmas;
+            DEFAULT_PRAGMAS = pragmas;
         }
     }
 
+    @Deprecated
     public static String getPragma(String pragma) {
         Validate.notNull(pragma, "pragma");
 
-        return PRAGMAS.get(pragma);
+        Map<String, String> pragmas = DEFAULT_PRAGMAS;
+
+        return pragmas != null ? pragmas.get(pragma) : null;
     }
 }
@@ -36,6 +36,6 @@ public class SqlServerDatabaseDriver extends GenericDatabaseDriver {
 
     @Override
     public void createConfiguration(StandardServiceRegistryBuilder serviceRegistryBuilder, DbConfiguration configuration) {
-        configureConnectionPooling(serviceRegistryBuilder, configuration, "SELECT 1;");
+        configureConnectionPooling(serviceRegistryBuilder, configuration);
     }
 }
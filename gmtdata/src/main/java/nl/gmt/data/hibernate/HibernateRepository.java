@@ -1,5 +1,6 @@
 package nl.gmt.data.hibernate;
 
+import nl.gmt.data.DbBulkContext;
 import nl.gmt.data.DbContext;
 import nl.gmt.data.DbQuery;
 import nl.gmt.data.Entity;
@@ -15,6 +16,7 @@ import java.util.List;
 public abstract class HibernateRepository<T extends Entity> implements Repository<T> {
     private final Class<T> persistentClass;
     private DbContext context;
+    private DbBulkContext bulkContext;
 
     protected HibernateRepository(Class<T> persistentClass) {
         this.persistentClass = persistentClass;
@@ -35,6 +37,16 @@ public abstract class HibernateRepository<T extends Entity> implements Repositor
         this.context = context;
     }
 
+    @Override
+    public DbBulkContext getBulkContext() {
+        return bulkContext;
+    }
+
+    @Override
+    public void setBulkContext(DbBulkContext bulkContext) {
+        this.bulkContext = bulkContext;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public List<T> getAll() {
@@ -74,6 +86,47 @@ public abstract class HibernateRepository<T extends Entity> implements Repositor
         return (T)load(persistentClass, id);
     }
 
+    @Override
+    public void insertAll(Iterable<? extends T> entities) {
+        Validate.notNull(entities, "entities");
+
+        DbBulkContext bulkContext = requireBulkContext();
+
+        for (T entity : entities) {
+            bulkContext.insert(entity);
+        }
+    }
+
+    @Override
+    public void updateAll(Iterable<? extends T> entities) {
+        Validate.notNull(entities, "entities");
+
+        DbBulkContext bulkContext = requireBulkContext();
+
+        for (T entity : entities) {
+            bulkContext.update(entity);
+        }
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        Validate.notNull(entities, "entities");
+
+        DbBulkContext bulkContext = requireBulkContext();
+
+        for (T entity : entities) {
+            bulkContext.delete(entity);
+        }
+    }
+
+    private DbBulkContext requireBulkContext() {
+        if (bulkContext == null) {
+            throw new IllegalStateException("Bulk writes require a repository from a bulk context");
+        }
+
+        return bulkContext;
+    }
+
     protected <R extends Repository> R getRepository(Class<R> repositoryClass) {
         return context.getRepository(repositoryClass);
     }
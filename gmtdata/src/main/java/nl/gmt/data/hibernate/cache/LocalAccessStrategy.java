@@ -0,0 +1,138 @@
+package nl.gmt.data.hibernate.cache;
+
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.spi.CacheDataDescription;
+import org.hibernate.cache.spi.access.AccessType;
+import org.hibernate.cache.spi.access.RegionAccessStrategy;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionImplementor;
+
+import java.util.Comparator;
+
+abstract class LocalAccessStrategy implements RegionAccessStrategy {
+    protected final LocalRegion region;
+    protected final AccessType accessType;
+    private final Comparator versionComparator;
+
+    LocalAccessStrategy(LocalTransactionalRegion region, AccessType accessType) {
+        this.region = region;
+        this.accessType = accessType;
+
+        CacheDataDescription metadata = region.getCacheDataDescription();
+
+        versionComparator = metadata != null && metadata.isVersioned() ? metadata.getVersionComparator() : null;
+    }
+
+    @Override
+    public Object get(SessionImplementor session, Object key, long txTimestamp) throws CacheException {
+        return region.getCached(key);
+    }
+
+    @Override
+    public boolean putFromLoad(SessionImplementor session, Object key, Object value, long txTimestamp, Object version) throws CacheException {
+        return putFromLoad(session, key, value, txTimestamp, version, false);
+    }
+
+    @Override
+    public boolean putFromLoad(SessionImplementor session, Object key, Object value, long txTimestamp, Object version, boolean minimalPutOverride) throws CacheException {
+        if (accessType == AccessType.READ_WRITE) {
+            return region.putFromLoad(key, value, txTimestamp, version, versionComparator, minimalPutOverride);
+        }
+
+        if (minimalPutOverride && region.contains(key)) {
+            return false;
+        }
+
+        return region.putIfNotLocked(key, value, version);
+    }
+
+    @Override
+    public SoftLock lockItem(SessionImplementor session, Object key, Object version) throws CacheException {
+        // Only read/write access keeps readers away from items that are being changed.
+
+        if (accessType == AccessType.READ_WRITE) {
+            return region.lock(key, version);
+        }
+
+        return null;
+    }
+
+    @Override
+    public SoftLock lockRegion() throws CacheException {
+        return null;
+    }
+
+    @Override
+    public void unlockItem(SessionImplementor session, Object key, SoftLock lock) throws CacheException {
+        if (accessType == AccessType.READ_WRITE) {
+            region.unlock(key, lock, null, null);
+        } else {
+            region.remove(key);
+        }
+    }
+
+    @Override
+    public void unlockRegion(SoftLock lock) throws CacheException {
+        region.clear();
+    }
+
+    @Override
+    public void remove(SessionImplementor session, Object key) throws CacheException {
+        // With read/write access the item is locked and removed once it is unlocked.
+
+        if (accessType != AccessType.READ_WRITE) {
+            region.remove(key);
+        }
+    }
+
+    @Override
+    public void removeAll() throws CacheException {
+        region.clear();
+    }
+
+    @Override
+    public void evict(Object key) throws CacheException {
+        region.remove(key);
+    }
+
+    @Override
+    public void evictAll() throws CacheException {
+        region.clear();
+    }
+
+    protected boolean afterInsertItem(Object key, Object value, Object version) {
+        if (accessType == AccessType.NONSTRICT_READ_WRITE) {
+            return false;
+        }
+
+        return region.putIfNotLocked(key, value, version);
+    }
+
+    protected boolean updateItem(Object key) {
+        switch (accessType) {
+            case READ_ONLY:
+                throw new UnsupportedOperationException(String.format("Cannot update read only items in region '%s'", region.getName()));
+
+            case NONSTRICT_READ_WRITE:
+                region.remove(key);
+                return false;
+
+            default:
+                return false;
+        }
+    }
+
+    protected boolean afterUpdateItem(Object key, Object value, Object version, SoftLock lock) {
+        switch (accessType) {
+            case READ_ONLY:
+                throw new UnsupportedOperationException(String.format("Cannot update read only items in region '%s'", region.getName()));
+
+            case NONSTRICT_READ_WRITE:
+                region.remove(key);
+                return false;
+
+            default:
+                return region.unlock(key, lock, value, version);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package nl.gmt.data.hibernate.cache;
+
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.internal.DefaultCacheKeysFactory;
+import org.hibernate.cache.spi.CacheDataDescription;
+import org.hibernate.cache.spi.CollectionRegion;
+import org.hibernate.cache.spi.access.AccessType;
+import org.hibernate.cache.spi.access.CollectionRegionAccessStrategy;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+
+class LocalCollectionRegion extends LocalTransactionalRegion implements CollectionRegion {
+    LocalCollectionRegion(LocalRegionFactory factory, String name, int maxEntries, int timeToLive, CacheDataDescription metadata) {
+        super(factory, name, maxEntries, timeToLive, metadata);
+    }
+
+    @Override
+    public CollectionRegionAccessStrategy buildAccessStrategy(AccessType accessType) throws CacheException {
+        validateAccessType(accessType);
+
+        return new AccessStrategy(accessType);
+    }
+
+    private class AccessStrategy extends LocalAccessStrategy implements CollectionRegionAccessStrategy {
+        private AccessStrategy(AccessType accessType) {
+            super(LocalCollectionRegion.this, accessType);
+        }
+
+        @Override
+        public Object generateCacheKey(Object id, CollectionPersister persister, SessionFactoryImplementor factory, String tenantIdentifier) {
+            return DefaultCacheKeysFactory.createCollectionKey(id, persister, factory, tenantIdentifier);
+        }
+
+        @Override
+        public Object getCacheKeyId(Object cacheKey) {
+            return DefaultCacheKeysFactory.getCollectionId(cacheKey);
+        }
+
+        @Override
+        public CollectionRegion getRegion() {
+            return LocalCollectionRegion.this;
+        }
+    }
+}
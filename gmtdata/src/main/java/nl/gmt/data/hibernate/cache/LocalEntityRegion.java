@@ -0,0 +1,66 @@
+package nl.gmt.data.hibernate.cache;
+
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.internal.DefaultCacheKeysFactory;
+import org.hibernate.cache.spi.CacheDataDescription;
+import org.hibernate.cache.spi.EntityRegion;
+import org.hibernate.cache.spi.access.AccessType;
+import org.hibernate.cache.spi.access.EntityRegionAccessStrategy;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+class LocalEntityRegion extends LocalTransactionalRegion implements EntityRegion {
+    LocalEntityRegion(LocalRegionFactory factory, String name, int maxEntries, int timeToLive, CacheDataDescription metadata) {
+        super(factory, name, maxEntries, timeToLive, metadata);
+    }
+
+    @Override
+    public EntityRegionAccessStrategy buildAccessStrategy(AccessType accessType) throws CacheException {
+        validateAccessType(accessType);
+
+        return new AccessStrategy(accessType);
+    }
+
+    private class AccessStrategy extends LocalAccessStrategy implements EntityRegionAccessStrategy {
+        private AccessStrategy(AccessType accessType) {
+            super(LocalEntityRegion.this, accessType);
+        }
+
+        @Override
+        public Object generateCacheKey(Object id, EntityPersister persister, SessionFactoryImplementor factory, String tenantIdentifier) {
+            return DefaultCacheKeysFactory.createEntityKey(id, persister, factory, tenantIdentifier);
+        }
+
+        @Override
+        public Object getCacheKeyId(Object cacheKey) {
+            return DefaultCacheKeysFactory.getEntityId(cacheKey);
+        }
+
+        @Override
+        public EntityRegion getRegion() {
+            return LocalEntityRegion.this;
+        }
+
+        @Override
+        public boolean insert(SessionImplementor session, Object key, Object value, Object version) throws CacheException {
+            return false;
+        }
+
+        @Override
+        public boolean afterInsert(SessionImplementor session, Object key, Object value, Object version) throws CacheException {
+            return afterInsertItem(key, value, version);
+        }
+
+        @Override
+        public boolean update(SessionImplementor session, Object key, Object value, Object currentVersion, Object previousVersion) throws CacheException {
+            return updateItem(key);
+        }
+
+        @Override
+        public boolean afterUpdate(SessionImplementor session, Object key, Object value, Object currentVersion, Object previousVersion, SoftLock lock) throws CacheException {
+            return afterUpdateItem(key, value, currentVersion, lock);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package nl.gmt.data.hibernate.cache;
+
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.internal.DefaultCacheKeysFactory;
+import org.hibernate.cache.spi.CacheDataDescription;
+import org.hibernate.cache.spi.NaturalIdRegion;
+import org.hibernate.cache.spi.access.AccessType;
+import org.hibernate.cache.spi.access.NaturalIdRegionAccessStrategy;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+class LocalNaturalIdRegion extends LocalTransactionalRegion implements NaturalIdRegion {
+    LocalNaturalIdRegion(LocalRegionFactory factory, String name, int maxEntries, int timeToLive, CacheDataDescription metadata) {
+        super(factory, name, maxEntries, timeToLive, metadata);
+    }
+
+    @Override
+    public NaturalIdRegionAccessStrategy buildAccessStrategy(AccessType accessType) throws CacheException {
+        validateAccessType(accessType);
+
+        return new AccessStrategy(accessType);
+    }
+
+    private class AccessStrategy extends LocalAccessStrategy implements NaturalIdRegionAccessStrategy {
+        private AccessStrategy(AccessType accessType) {
+            super(LocalNaturalIdRegion.this, accessType);
+        }
+
+        @Override
+        public Object generateCacheKey(Object[] naturalIdValues, EntityPersister persister, SessionImplementor session) {
+            return DefaultCacheKeysFactory.createNaturalIdKey(naturalIdValues, persister, session);
+        }
+
+        @Override
+        public Object[] getNaturalIdValues(Object cacheKey) {
+            return DefaultCacheKeysFactory.getNaturalIdValues(cacheKey);
+        }
+
+        @Override
+        public NaturalIdRegion getRegion() {
+            return LocalNaturalIdRegion.this;
+        }
+
+        @Override
+        public boolean insert(SessionImplementor session, Object key, Object value) throws CacheException {
+            return false;
+        }
+
+        @Override
+        public boolean afterInsert(SessionImplementor session, Object key, Object value) throws CacheException {
+            return afterInsertItem(key, value, null);
+        }
+
+        @Override
+        public boolean update(SessionImplementor session, Object key, Object value) throws CacheException {
+            return updateItem(key);
+        }
+
+        @Override
+        public boolean afterUpdate(SessionImplementor session, Object key, Object value, SoftLock lock) throws CacheException {
+            return afterUpdateItem(key, value, null, lock);
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package nl.gmt.data.hibernate.cache;
+
+import nl.gmt.data.DbCacheStatistics;
+import org.apache.commons.lang.Validate;
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.spi.QueryResultsRegion;
+import org.hibernate.cache.spi.TimestampsRegion;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionImplementor;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LocalRegion implements QueryResultsRegion, TimestampsRegion {
+    private static final int TIMEOUT = 60000;
+
+    private final LocalRegionFactory factory;
+    private final String name;
+    private final int maxEntries;
+    private final long timeToLive;
+    private final LinkedHashMap<Object, Item> items;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong putCount = new AtomicLong();
+
+    LocalRegion(LocalRegionFactory factory, String name, int maxEntries, int timeToLive) {
+        Validate.notNull(factory, "factory");
+        Validate.notNull(name, "name");
+
+        this.factory = factory;
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.timeToLive = timeToLive * 1000L;
+
+        // The items are kept in access order so the least recently used item is evicted
+        // once the region grows beyond its maximum size. Locks are never evicted; without
+        // the lock, a load could cache a stale value while the write is still in progress.
+
+        items = new LinkedHashMap<Object, Item>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Item> eldest) {
+                if (LocalRegion.this.maxEntries <= 0 || size() <= LocalRegion.this.maxEntries) {
+                    return false;
+                }
+
+                if (!(eldest.getValue().value instanceof Lock)) {
+                    return true;
+                }
+
+                for (Iterator<Item> iterator = values().iterator(); iterator.hasNext(); ) {
+                    if (!(iterator.next().value instanceof Lock)) {
+                        iterator.remove();
+                        break;
+                    }
+                }
+
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public DbCacheStatistics getStatistics() {
+        return new DbCacheStatistics(
+            name,
+            hitCount.get(),
+            missCount.get(),
+            putCount.get(),
+            getElementCountInMemory()
+        );
+    }
+
+    @Override
+    public Object get(SessionImplementor session, Object key) throws CacheException {
+        return getCached(key);
+    }
+
+    @Override
+    public void put(SessionImplementor session, Object key, Object value) throws CacheException {
+        put(key, value);
+    }
+
+    @Override
+    public void evict(Object key) throws CacheException {
+        remove(key);
+    }
+
+    @Override
+    public void evictAll() throws CacheException {
+        clear();
+    }
+
+    @Override
+    public void destroy() throws CacheException {
+        clear();
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        Object value = read(key);
+
+        return value != null && !(value instanceof Lock);
+    }
+
+    @Override
+    public long getSizeInMemory() {
+        return -1;
+    }
+
+    @Override
+    public synchronized long getElementCountInMemory() {
+        return items.size();
+    }
+
+    @Override
+    public long getElementCountOnDisk() {
+        return 0;
+    }
+
+    @Override
+    public synchronized Map toMap() {
+        Map<Object, Object> result = new HashMap<>();
+        long now = System.currentTimeMillis();
+
+        for (Map.Entry<Object, Item> entry : items.entrySet()) {
+            if (!entry.getValue().isExpired(now) && !(entry.getValue().value instanceof Lock)) {
+                result.put(entry.getKey(), entry.getValue().value);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public long nextTimestamp() {
+        return factory.nextTimestamp();
+    }
+
+    @Override
+    public int getTimeout() {
+        // Hibernate adds the timeout to a timestamp, so it's in the same unit.
+
+        return TIMEOUT << LocalRegionFactory.TIMESTAMP_BITS;
+    }
+
+    Object getCached(Object key) {
+        Object value = read(key);
+
+        if (value instanceof Lock) {
+            value = null;
+        }
+
+        if (value != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+
+        return value;
+    }
+
+    synchronized Object read(Object key) {
+        Item item = readItem(key);
+
+        return item != null ? item.value : null;
+    }
+
+    synchronized void put(Object key, Object value) {
+        put(key, value, null);
+    }
+
+    private void put(Object key, Object value, Object version) {
+        items.put(key, new Item(value, version, timeToLive));
+        putCount.incrementAndGet();
+    }
+
+    synchronized boolean putIfNotLocked(Object key, Object value, Object version) {
+        if (read(key) instanceof Lock) {
+            return false;
+        }
+
+        put(key, value, version);
+
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    synchronized boolean putFromLoad(Object key, Object value, long txTimestamp, Object version, Comparator versionComparator, boolean minimalPut) {
+        // A transaction that loaded the value before a concurrent change was completed may
+        // only cache it when it's known to be newer, the same rules Hibernate's read/write
+        // access strategy uses.
+
+        Item item = readItem(key);
+
+        if (item != null) {
+            if (item.value instanceof Lock) {
+                if (!((Lock)item.value).isWriteable(txTimestamp, version, versionComparator)) {
+                    return false;
+                }
+            } else if (minimalPut || item.version == null || version == null || versionComparator == null || versionComparator.compare(item.version, version) >= 0) {
+                return false;
+            }
+        }
+
+        put(key, value, version);
+
+        return true;
+    }
+
+    synchronized void remove(Object key) {
+        items.remove(key);
+    }
+
+    synchronized void clear() {
+        items.clear();
+    }
+
+    synchronized SoftLock lock(Object key, Object version) {
+        // Concurrent writers share the lock. The value is only cached again when a single
+        // writer held the lock; otherwise the last writer to complete may not have the
+        // latest value.
+
+        Object value = read(key);
+        Lock lock;
+
+        if (value instanceof Lock) {
+            lock = (Lock)value;
+            lock.count++;
+            lock.concurrent = true;
+        } else {
+            lock = new Lock(version);
+        }
+
+        // The lock expires so a writer that never completes doesn't lock the item forever.
+
+        items.put(key, new Item(lock, null, TIMEOUT));
+
+        return lock;
+    }
+
+    synchronized boolean unlock(Object key, SoftLock lock, Object value, Object version) {
+        Object current = read(key);
+        Lock currentLock;
+
+        if (current != lock) {
+            // The lock expired while the writer was busy. The cached value can't be trusted
+            // anymore, so the item is marked as just unlocked. If another writer locked the
+            // item in the meantime, it must not cache its value when it completes.
+
+            if (current instanceof Lock) {
+                ((Lock)current).concurrent = true;
+                return false;
+            }
+
+            currentLock = new Lock(null);
+            currentLock.count = 0;
+            currentLock.concurrent = true;
+        } else {
+            currentLock = (Lock)current;
+
+            if (--currentLock.count > 0) {
+                return false;
+            }
+
+            if (value != null && !currentLock.concurrent) {
+                put(key, value, version);
+
+                return true;
+            }
+        }
+
+        // The unlocked lock stays behind so transactions that started before the change
+        // completed can't cache the value they loaded.
+
+        currentLock.unlockTimestamp = factory.nextTimestamp();
+
+        items.put(key, new Item(currentLock, null, TIMEOUT));
+
+        return false;
+    }
+
+    private Item readItem(Object key) {
+        Item item = items.get(key);
+
+        if (item != null && item.isExpired(System.currentTimeMillis())) {
+            items.remove(key);
+            return null;
+        }
+
+        return item;
+    }
+
+    private static class Item {
+        private final Object value;
+        private final Object version;
+        private final long expires;
+
+        private Item(Object value, Object version, long timeToLive) {
+            this.value = value;
+            this.version = version;
+            this.expires = timeToLive > 0 ? System.currentTimeMillis() + timeToLive : 0;
+        }
+
+        private boolean isExpired(long now) {
+            return expires != 0 && expires <= now;
+        }
+    }
+
+    private static class Lock implements SoftLock {
+        private final Object version;
+        private int count = 1;
+        private boolean concurrent;
+        private long unlockTimestamp = -1;
+
+        private Lock(Object version) {
+            this.version = version;
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean isWriteable(long txTimestamp, Object newVersion, Comparator versionComparator) {
+            if (count > 0) {
+                return false;
+            }
+
+            if (version != null && newVersion != null && versionComparator != null) {
+                return versionComparator.compare(version, newVersion) < 0;
+            }
+
+            return txTimestamp > unlockTimestamp;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package nl.gmt.data.hibernate.cache;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.spi.*;
+import org.hibernate.cache.spi.access.AccessType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LocalRegionFactory implements RegionFactory {
+    public static final String MAX_ENTRIES = "nl.gmt.data.cache.max_entries";
+    public static final String TIME_TO_LIVE = "nl.gmt.data.cache.time_to_live";
+    public static final String REGION_PREFIX = "nl.gmt.data.cache.region.";
+
+    // Timestamps are milliseconds shifted left by this many bits, the same as Hibernate's
+    // Timestamper, so multiple timestamps can be handed out in the same millisecond.
+
+    static final int TIMESTAMP_BITS = 12;
+
+    private static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    private final Map<String, LocalRegion> regions = new ConcurrentHashMap<>();
+    private final AtomicLong lastTimestamp = new AtomicLong();
+    private Properties properties;
+
+    @Override
+    public void start(SessionFactoryOptions settings, Properties properties) throws CacheException {
+        this.properties = properties;
+    }
+
+    @Override
+    public void stop() {
+        for (LocalRegion region : regions.values()) {
+            region.destroy();
+        }
+
+        regions.clear();
+    }
+
+    @Override
+    public boolean isMinimalPutsEnabledByDefault() {
+        return false;
+    }
+
+    @Override
+    public AccessType getDefaultAccessType() {
+        return AccessType.READ_WRITE;
+    }
+
+    @Override
+    public long nextTimestamp() {
+        // Timestamps are compared strictly, so an update and a load in the same millisecond
+        // must get different timestamps. Every timestamp is larger than the previous one.
+
+        while (true) {
+            long base = System.currentTimeMillis() << TIMESTAMP_BITS;
+            long last = lastTimestamp.get();
+            long next = Math.max(base, last + 1);
+
+            if (lastTimestamp.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+    @Override
+    public EntityRegion buildEntityRegion(String regionName, Properties properties, CacheDataDescription metadata) throws CacheException {
+        return register(new LocalEntityRegion(this, regionName, getMaxEntries(regionName), getTimeToLive(regionName), metadata));
+    }
+
+    @Override
+    public NaturalIdRegion buildNaturalIdRegion(String regionName, Properties properties, CacheDataDescription metadata) throws CacheException {
+        return register(new LocalNaturalIdRegion(this, regionName, getMaxEntries(regionName), getTimeToLive(regionName), metadata));
+    }
+
+    @Override
+    public CollectionRegion buildCollectionRegion(String regionName, Properties properties, CacheDataDescription metadata) throws CacheException {
+        return register(new LocalCollectionRegion(this, regionName, getMaxEntries(regionName), getTimeToLive(regionName), metadata));
+    }
+
+    @Override
+    public QueryResultsRegion buildQueryResultsRegion(String regionName, Properties properties) throws CacheException {
+        return register(new LocalRegion(this, regionName, getMaxEntries(regionName), getTimeToLive(regionName)));
+    }
+
+    @Override
+    public TimestampsRegion buildTimestampsRegion(String regionName, Properties properties) throws CacheException {
+        // Timestamps must never be evicted. A missing timestamp makes cached query results
+        // look up to date.
+
+        return register(new LocalRegion(this, regionName, 0, 0));
+    }
+
+    public List<LocalRegion> getRegions() {
+        return new ArrayList<>(regions.values());
+    }
+
+    private <T extends LocalRegion> T register(T region) {
+        regions.put(region.getName(), region);
+
+        return region;
+    }
+
+    private int getMaxEntries(String regionName) {
+        return getSetting(regionName, "max_entries", MAX_ENTRIES, DEFAULT_MAX_ENTRIES);
+    }
+
+    private int getTimeToLive(String regionName) {
+        return getSetting(regionName, "time_to_live", TIME_TO_LIVE, 0);
+    }
+
+    private int getSetting(String regionName, String name, String defaultSetting, int defaultValue) {
+        String value = properties.getProperty(REGION_PREFIX + regionName + "." + name);
+        if (value == null) {
+            value = properties.getProperty(defaultSetting);
+        }
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new CacheException(String.format("Invalid cache setting '%s' for region '%s'", value, regionName), e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package nl.gmt.data.hibernate.cache;
+
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.spi.CacheDataDescription;
+import org.hibernate.cache.spi.TransactionalDataRegion;
+import org.hibernate.cache.spi.access.AccessType;
+
+abstract class LocalTransactionalRegion extends LocalRegion implements TransactionalDataRegion {
+    private final CacheDataDescription metadata;
+
+    LocalTransactionalRegion(LocalRegionFactory factory, String name, int maxEntries, int timeToLive, CacheDataDescription metadata) {
+        super(factory, name, maxEntries, timeToLive);
+
+        this.metadata = metadata;
+    }
+
+    @Override
+    public boolean isTransactionAware() {
+        return false;
+    }
+
+    @Override
+    public CacheDataDescription getCacheDataDescription() {
+        return metadata;
+    }
+
+    protected void validateAccessType(AccessType accessType) {
+        // The region lives in this process only, so there is no transaction manager to
+        // coordinate with.
+
+        if (accessType == AccessType.TRANSACTIONAL) {
+            throw new CacheException(String.format("Transactional access is not supported for region '%s'", getName()));
+        }
+    }
+}
@@ -55,12 +55,28 @@ public class CodeGenerator {
         }
 
         if (repositoriesOutputDirectory != null) {
+            List<SchemaClass> classes = new ArrayList<>();
+
             for (SchemaClass klass : sort(schema.getClasses().values())) {
                 if (packageNameMatches(klass.getPackageName())) {
                     generateRepository(klass, writer);
+
+                    classes.add(klass);
                 }
             }
+
+            if (packageName != null) {
+                generateRepositoryRegistry(classes, writer);
+            }
+        }
+    }
+
+    public String getRepositoryRegistryClassName() {
+        if (repositoriesOutputDirectory == null || packageName == null) {
+            return null;
         }
+
+        return packageName + ".types.RepositoryRegistry";
     }
 
     private boolean packageNameMatches(String packageName) {
@@ -151,7 +167,7 @@ public class CodeGenerator {
         cw.writeln("public %sType(nl.gmt.data.schema.Schema schema, nl.gmt.data.schema.SchemaClass schemaClass) {", klass.getName());
         cw.indent();
 
-        cw.writeln("super(schema, schemaClass, %s.%s.class);", getModelPackageName(klass), klass.getName());
+        cw.writeln("super(schema, schemaClass, %s.%s.class, new Accessors());", getModelPackageName(klass), klass.getName());
 
         cw.unIndent();
         cw.writeln("}");
@@ -160,6 +176,8 @@ public class CodeGenerator {
 
         generateTypeMixins(cw, klass.getMixins(), new HashSet<SchemaMixin>());
 
+        generateTypeAccessors(cw, klass);
+
         cw.unIndent();
         cw.writeln("}");
 
@@ -232,6 +250,129 @@ public class CodeGenerator {
         }
     }
 
+    private void generateTypeAccessors(CodeWriter cw, SchemaClass klass) throws SchemaException {
+        // The accessors are generated so entity types don't have to build them with ASM at runtime.
+
+        SchemaClassIdProperty idProperty = klass.getResolvedIdProperty();
+        Class<?> idType = idProperty.getResolvedDataType().getNativeType();
+
+        cw.writeln();
+        cw.writeln("private static class Accessors implements nl.gmt.data.EntityType.AccessorFactory {");
+        cw.indent();
+
+        cw.writeln("@Override");
+        cw.writeln("public nl.gmt.data.EntityFieldAccessor createAccessor(String name) {");
+        cw.indent();
+
+        cw.writeln("switch (name) {");
+        cw.indent();
+
+        generateTypeAccessor(cw, klass, idProperty.getName(), "Id", getTypeName(idType), idType == Boolean.class);
+
+        generateTypeAccessorFields(cw, klass, klass);
+
+        generateTypeAccessorMixins(cw, klass, klass.getMixins(), new HashSet<SchemaMixin>());
+
+        cw.writeln("default:");
+        cw.indent();
+        cw.writeln("return null;");
+        cw.unIndent();
+
+        cw.unIndent();
+        cw.writeln("}");
+
+        cw.unIndent();
+        cw.writeln("}");
+
+        cw.unIndent();
+        cw.writeln("}");
+    }
+
+    private void generateTypeAccessorMixins(CodeWriter cw, SchemaClass klass, List<String> mixins, Set<SchemaMixin> seen) throws SchemaException {
+        for (String name : mixins) {
+            SchemaMixin mixin = schema.getMixins().get(name);
+
+            if (seen.contains(mixin))
+                continue;
+            seen.add(mixin);
+
+            generateTypeAccessorFields(cw, klass, mixin);
+
+            generateTypeAccessorMixins(cw, klass, mixin.getMixins(), seen);
+        }
+    }
+
+    private void generateTypeAccessorFields(CodeWriter cw, SchemaClass klass, SchemaClassBase fieldsClass) throws SchemaException {
+        for (SchemaField schemaField : fieldsClass.getFields()) {
+            if (schemaField instanceof SchemaProperty) {
+                SchemaProperty property = (SchemaProperty)schemaField;
+                Class<?> nativeType = property.getResolvedDataType().getNativeType();
+
+                generateTypeAccessor(
+                    cw,
+                    klass,
+                    property.getName(),
+                    property.getName(),
+                    property.getEnumType() != null ? getEnumType(property.getEnumType()) : getTypeName(nativeType),
+                    nativeType == Boolean.class
+                );
+            } else if (schemaField instanceof SchemaForeignParent) {
+                SchemaForeignParent foreign = (SchemaForeignParent)schemaField;
+
+                generateTypeAccessor(cw, klass, foreign.getName(), foreign.getName(), getClassName(foreign.getClassName()), false);
+            } else if (schemaField instanceof SchemaForeignChild) {
+                SchemaForeignChild foreign = (SchemaForeignChild)schemaField;
+
+                generateTypeAccessor(cw, klass, foreign.getName(), foreign.getName(), "java.util.Set<" + getClassName(foreign.getClassName()) + ">", false);
+            }
+        }
+    }
+
+    private void generateTypeAccessor(CodeWriter cw, SchemaClass klass, String fieldName, String name, String typeName, boolean isBoolean) {
+        // Accessors expose boxed types and raw collection types, the same as the accessors built
+        // at runtime.
+
+        if (typeName.equals("byte")) {
+            typeName = "Byte";
+        }
+
+        int pos = typeName.indexOf('<');
+        String rawTypeName = pos == -1 ? typeName : typeName.substring(0, pos);
+
+        cw.writeln("case \"%s\":", StringEscapeUtils.escapeJava(fieldName));
+        cw.indent();
+
+        cw.writeln(
+            "return new nl.gmt.data.EntityFieldAccessor(\"%s\", %s.class, true) {",
+            StringEscapeUtils.escapeJava(name),
+            rawTypeName
+        );
+        cw.indent();
+
+        cw.writeln("@Override");
+        cw.writeln("public Object getValue(Object object) {");
+        cw.indent();
+        cw.writeln("return ((%s)object).%s%s();", getClassName(klass), isBoolean ? "is" : "get", name);
+        cw.unIndent();
+        cw.writeln("}");
+        cw.writeln();
+
+        cw.writeln("@Override");
+        if (pos != -1) {
+            cw.writeln("@SuppressWarnings(\"unchecked\")");
+        }
+        cw.writeln("public void setValue(Object object, Object value) {");
+        cw.indent();
+        cw.writeln("((%s)object).set%s((%s)value);", getClassName(klass), name, typeName);
+        cw.unIndent();
+        cw.writeln("}");
+
+        cw.unIndent();
+        cw.writeln("};");
+
+        cw.unIndent();
+    }
+
     private File buildFileName(File outputDirectory, String... parts) {
         File file = outputDirectory;
 
@@ -350,6 +491,10 @@ public class CodeGenerator {
         if (klass.isDynamicUpdate()) {
             cw.writeln("@org.hibernate.annotations.DynamicUpdate");
         }
+        if (klass.getCache() != SchemaCache.UNSET) {
+            cw.writeln("@javax.persistence.Cacheable");
+            generateCacheAnnotation(cw, klass.getCache());
+        }
         cw.writeln(
             "public class %s extends nl.gmt.data.Entity%s {",
             klass.getName(),
@@ -876,10 +1021,17 @@ public class CodeGenerator {
         cw.writeln();
 
         cw.writeln("@javax.persistence.OneToMany(mappedBy = \"%s\", fetch = javax.persistence.FetchType.LAZY)", getFieldName(foreign.getClassProperty(), false));
+        if (foreign.getCache() != SchemaCache.UNSET) {
+            generateCacheAnnotation(cw, foreign.getCache());
+        }
 
         generateGetterSetter(cw, foreign.getName(), "java.util.Set<" + getClassName(linkClass) + ">", false);
     }
 
+    private void generateCacheAnnotation(CodeWriter cw, SchemaCache cache) {
+        cw.writeln("@org.hibernate.annotations.Cache(usage = org.hibernate.annotations.CacheConcurrencyStrategy.%s)", cache.name());
+    }
+
     private void generateForeignParent(CodeWriter cw, SchemaForeignParent foreign) throws SchemaException {
         cw.writeln(
             "private %s %s;",
@@ -1023,6 +1175,59 @@ public class CodeGenerator {
         writer.writeFile(fileName, cw.toString(), false);
     }
 
+    private void generateRepositoryRegistry(List<SchemaClass> classes, GeneratorWriter writer) {
+        // The registry is loaded through a ServiceLoader and creates the repositories without
+        // reflection.
+
+        CodeWriter cw = new CodeWriter();
+
+        cw.writeln("package %s.types;", packageName);
+        cw.writeln();
+
+        cw.writeln("public class RepositoryRegistry implements nl.gmt.data.RepositoryRegistry {");
+        cw.indent();
+
+        cw.writeln("@Override");
+        cw.writeln("public void register(nl.gmt.data.RepositoryService repositoryService) {");
+        cw.indent();
+
+        for (int i = 0; i < classes.size(); i++) {
+            SchemaClass klass = classes.get(i);
+            String repositoryName = getModelPackageName(klass) + "." + klass.getName() + "Repository";
+
+            if (i > 0) {
+                cw.writeln();
+            }
+
+            cw.writeln(
+                "repositoryService.addRepository(%s.class, new nl.gmt.data.RepositoryFactory<%s>() {",
+                repositoryName,
+                repositoryName
+            );
+            cw.indent();
+
+            cw.writeln("@Override");
+            cw.writeln("public %s createRepository() {", repositoryName);
+            cw.indent();
+            cw.writeln("return new %s.%sRepositoryImpl();", getModelPackageName(klass, "implementation"), klass.getName());
+            cw.unIndent();
+            cw.writeln("}");
+
+            cw.unIndent();
+            cw.writeln("});");
+        }
+
+        cw.unIndent();
+        cw.writeln("}");
+
+        cw.unIndent();
+        cw.writeln("}");
+
+        File fileName = buildFileName(outputDirectory, packageName, "types", "RepositoryRegistry.java");
+
+        writer.writeFile(fileName, cw.toString(), true);
+    }
+
     @SuppressWarnings("unchecked")
     private <T extends Comparable> List<T> sort(Collection<? extends T> collection) {
         List<T> result = new ArrayList<>(collection);
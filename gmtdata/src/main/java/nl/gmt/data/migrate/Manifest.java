@@ -1,6 +1,9 @@
 package nl.gmt.data.migrate;
 
 public class Manifest {
+    public static final String TABLE_NAME = "GmtMigrate";
+    public static final String VERSION = "1";
+
     private final String version;
     private final String schemaHash;
 
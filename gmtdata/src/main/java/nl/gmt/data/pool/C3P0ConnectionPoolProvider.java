@@ -0,0 +1,36 @@
+package nl.gmt.data.pool;
+
+import nl.gmt.data.DbConfiguration;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.c3p0.internal.C3P0ConnectionProvider;
+import org.hibernate.cfg.AvailableSettings;
+
+public class C3P0ConnectionPoolProvider implements ConnectionPoolProvider {
+    @Override
+    public void configure(StandardServiceRegistryBuilder serviceRegistryBuilder, DbConfiguration configuration) {
+        int minSize = configuration.getConnectionPoolMinSize();
+        if (minSize == -1) {
+            minSize = 0;
+        }
+        int maxSize = configuration.getConnectionPoolMaxSize();
+        if (maxSize == -1) {
+            maxSize = DbConfiguration.DEFAULT_CONNECTION_POOL_MAX_SIZE;
+        }
+        int statementCacheSize = configuration.getStatementCacheSize();
+        if (statementCacheSize == -1) {
+            statementCacheSize = 0;
+        }
+
+        // Without a preferred test query C3P0 validates connections with the JDBC 4 isValid method.
+
+        serviceRegistryBuilder
+            .applySetting(AvailableSettings.CONNECTION_PROVIDER, C3P0ConnectionProvider.class.getName())
+            .applySetting(AvailableSettings.C3P0_ACQUIRE_INCREMENT, "3")
+            .applySetting(AvailableSettings.C3P0_IDLE_TEST_PERIOD, "14400")
+            .applySetting(AvailableSettings.C3P0_MIN_SIZE, Integer.toString(minSize))
+            .applySetting(AvailableSettings.C3P0_MAX_SIZE, Integer.toString(maxSize))
+            .applySetting(AvailableSettings.C3P0_MAX_STATEMENTS, "0")
+            .applySetting(AvailableSettings.C3P0_CONFIG_PREFIX + ".maxStatementsPerConnection", Integer.toString(statementCacheSize))
+            .applySetting(AvailableSettings.C3P0_TIMEOUT, "25200");
+    }
+}
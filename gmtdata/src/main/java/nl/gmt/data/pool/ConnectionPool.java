@@ -0,0 +1,275 @@
+package nl.gmt.data.pool;
+
+import nl.gmt.data.DbConnectionPoolStatistics;
+import org.apache.commons.lang.Validate;
+import org.jboss.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ConnectionPool {
+    private static final Logger LOG = Logger.getLogger(ConnectionPool.class);
+
+    // Connections that have been used very recently are handed out without validating them.
+
+    private static final long ALIVE_BYPASS_WINDOW = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long HOUSEKEEPING_PERIOD = 30;
+
+    private final String url;
+    private final Properties properties;
+    private final int minSize;
+    private final int maxSize;
+    private final int statementCacheSize;
+    private final int validationTimeout;
+    private final long idleTimeout;
+    private final long acquireTimeout;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicLong acquireCount = new AtomicLong();
+    private final AtomicLong acquireTime = new AtomicLong();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    ConnectionPool(String url, Properties properties, int minSize, int maxSize, int statementCacheSize, int validationTimeoutSeconds, int idleTimeoutSeconds, int acquireTimeoutMillis) {
+        Validate.notNull(url, "url");
+        Validate.notNull(properties, "properties");
+        Validate.isTrue(maxSize > 0, "maxSize must be positive");
+        Validate.isTrue(minSize >= 0 && minSize <= maxSize, "minSize must be between zero and maxSize");
+
+        this.url = url;
+        this.properties = properties;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.statementCacheSize = statementCacheSize;
+        this.validationTimeout = validationTimeoutSeconds;
+        this.idleTimeout = TimeUnit.SECONDS.toNanos(idleTimeoutSeconds);
+        this.acquireTimeout = acquireTimeoutMillis;
+
+        permits = new Semaphore(maxSize, true);
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "gmtdata-pool-housekeeper");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        housekeeper.scheduleWithFixedDelay(
+            new Runnable() {
+                @Override
+                public void run() {
+                    housekeep();
+                }
+            },
+            0,
+            HOUSEKEEPING_PERIOD,
+            TimeUnit.SECONDS
+        );
+    }
+
+    public Connection getConnection() throws SQLException {
+        return getConnection(false, null);
+    }
+
+    public Connection getConnection(Object tag) throws SQLException {
+        return getConnection(true, tag);
+    }
+
+    public Object getTag(Connection connection) {
+        return PooledConnection.fromProxy(connection).getTag();
+    }
+
+    public void setTag(Connection connection, Object tag) {
+        PooledConnection.fromProxy(connection).setTag(tag);
+    }
+
+    public void discard(Connection connection) throws SQLException {
+        // The connection is closed instead of being returned to the pool.
+
+        PooledConnection.fromProxy(connection).markBroken();
+
+        connection.close();
+    }
+
+    private Connection getConnection(boolean matchTag, Object tag) throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool has been closed");
+        }
+
+        long start = System.nanoTime();
+
+        pendingCount.incrementAndGet();
+
+        try {
+            if (!permits.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException(String.format(
+                    "Timed out after %d ms waiting for a connection (%d active, %d idle, %d pending)",
+                    acquireTimeout,
+                    activeCount.get(),
+                    idle.size(),
+                    pendingCount.get()
+                ));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        } finally {
+            pendingCount.decrementAndGet();
+        }
+
+        try {
+            PooledConnection connection = takeIdle(matchTag, tag);
+            if (connection == null) {
+                connection = createConnection();
+            }
+
+            activeCount.incrementAndGet();
+            acquireCount.incrementAndGet();
+            acquireTime.addAndGet(System.nanoTime() - start);
+
+            return connection.open();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+
+            throw e;
+        }
+    }
+
+    public DbConnectionPoolStatistics getStatistics() {
+        return new DbConnectionPoolStatistics(
+            activeCount.get(),
+            idle.size(),
+            pendingCount.get(),
+            acquireCount.get(),
+            acquireTime.get()
+        );
+    }
+
+    public void close() {
+        closed = true;
+
+        housekeeper.shutdownNow();
+
+        // Active connections are closed when they are returned.
+
+        PooledConnection connection;
+
+        while ((connection = idle.pollFirst()) != null) {
+            connection.closePhysical();
+        }
+    }
+
+    void release(PooledConnection connection) {
+        activeCount.decrementAndGet();
+
+        try {
+            if (closed || connection.isBroken() || idle.size() >= maxSize) {
+                connection.closePhysical();
+            } else {
+                connection.reset();
+
+                idle.offerFirst(connection);
+            }
+        } catch (SQLException e) {
+            LOG.warn("Cannot reset connection; closing it", e);
+
+            connection.closePhysical();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private PooledConnection takeIdle(boolean matchTag, Object tag) {
+        PooledConnection connection;
+
+        if (matchTag) {
+            // Prefer a connection with the requested tag. Otherwise the least recently used
+            // connection is taken, which is the one least likely to be wanted for its tag.
+
+            for (PooledConnection candidate : idle) {
+                if (Objects.equals(tag, candidate.getTag()) && idle.removeFirstOccurrence(candidate)) {
+                    if (isAlive(candidate)) {
+                        return candidate;
+                    }
+
+                    candidate.closePhysical();
+                    break;
+                }
+            }
+
+            while ((connection = idle.pollLast()) != null) {
+                if (isAlive(connection)) {
+                    return connection;
+                }
+
+                connection.closePhysical();
+            }
+
+            return null;
+        }
+
+        // Idle connections are taken most recently used first. This keeps the number of
+        // connections in use low, so the housekeeper can close the rest.
+
+        while ((connection = idle.pollFirst()) != null) {
+            if (isAlive(connection)) {
+                return connection;
+            }
+
+            connection.closePhysical();
+        }
+
+        return null;
+    }
+
+    private boolean isAlive(PooledConnection connection) {
+        return System.nanoTime() - connection.getLastAccess() < ALIVE_BYPASS_WINDOW || connection.isValid(validationTimeout);
+    }
+
+    private PooledConnection createConnection() throws SQLException {
+        return new PooledConnection(this, DriverManager.getConnection(url, properties), statementCacheSize);
+    }
+
+    private void housekeep() {
+        try {
+            long now = System.nanoTime();
+
+            // Least recently used connections are at the end of the deque.
+
+            for (Iterator<PooledConnection> iterator = idle.descendingIterator(); iterator.hasNext(); ) {
+                PooledConnection connection = iterator.next();
+
+                if (activeCount.get() + idle.size() <= minSize) {
+                    break;
+                }
+
+                if (now - connection.getLastAccess() > idleTimeout && idle.removeFirstOccurrence(connection)) {
+                    connection.closePhysical();
+                }
+            }
+
+            while (!closed && activeCount.get() + idle.size() < minSize && permits.tryAcquire()) {
+                try {
+                    idle.offerLast(createConnection());
+                } finally {
+                    permits.release();
+                }
+            }
+        } catch (Throwable e) {
+            LOG.warn("Connection pool housekeeping failed", e);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package nl.gmt.data.pool;
+
+import nl.gmt.data.DbConfiguration;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+
+public interface ConnectionPoolProvider {
+    void configure(StandardServiceRegistryBuilder serviceRegistryBuilder, DbConfiguration configuration);
+}
@@ -0,0 +1,50 @@
+package nl.gmt.data.pool;
+
+import nl.gmt.data.DbConfiguration;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class LocalConnectionPoolProvider implements ConnectionPoolProvider {
+    @Override
+    public void configure(StandardServiceRegistryBuilder serviceRegistryBuilder, DbConfiguration configuration) {
+        serviceRegistryBuilder.applySetting(AvailableSettings.CONNECTION_PROVIDER, LocalConnectionProvider.class.getName());
+        serviceRegistryBuilder.applySettings(getSettings(configuration));
+    }
+
+    public ConnectionPool createPool(String url, String driver, DbConfiguration configuration) {
+        Map<String, String> settings = getSettings(configuration);
+
+        settings.put(AvailableSettings.URL, url);
+        settings.put(AvailableSettings.DRIVER, driver);
+
+        LocalConnectionProvider connectionProvider = new LocalConnectionProvider();
+
+        connectionProvider.configure(settings);
+
+        return connectionProvider.getPool();
+    }
+
+    private Map<String, String> getSettings(DbConfiguration configuration) {
+        // Settings that haven't been configured are left to the defaults of the provider.
+
+        Map<String, String> settings = new HashMap<>();
+
+        addSetting(settings, LocalConnectionProvider.MIN_SIZE, configuration.getConnectionPoolMinSize());
+        addSetting(settings, LocalConnectionProvider.MAX_SIZE, configuration.getConnectionPoolMaxSize());
+        addSetting(settings, LocalConnectionProvider.STATEMENT_CACHE_SIZE, configuration.getStatementCacheSize());
+        addSetting(settings, LocalConnectionProvider.VALIDATION_TIMEOUT, configuration.getConnectionValidationTimeoutSeconds());
+        addSetting(settings, LocalConnectionProvider.IDLE_TIMEOUT, configuration.getConnectionPoolIdleTimeoutSeconds());
+        addSetting(settings, LocalConnectionProvider.ACQUIRE_TIMEOUT, configuration.getConnectionPoolAcquireTimeoutMillis());
+
+        return settings;
+    }
+
+    private void addSetting(Map<String, String> settings, String name, int value) {
+        if (value != -1) {
+            settings.put(name, Integer.toString(value));
+        }
+    }
+}
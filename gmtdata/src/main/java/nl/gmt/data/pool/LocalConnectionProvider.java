@@ -0,0 +1,112 @@
+package nl.gmt.data.pool;
+
+import nl.gmt.data.DbConfiguration;
+import org.hibernate.HibernateException;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.internal.ConnectionProviderInitiator;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.Stoppable;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Properties;
+
+public class LocalConnectionProvider implements ConnectionProvider, Configurable, Stoppable {
+    public static final String MIN_SIZE = "nl.gmt.data.pool.min_size";
+    public static final String MAX_SIZE = "nl.gmt.data.pool.max_size";
+    public static final String STATEMENT_CACHE_SIZE = "nl.gmt.data.pool.statement_cache_size";
+    public static final String VALIDATION_TIMEOUT = "nl.gmt.data.pool.validation_timeout";
+    public static final String IDLE_TIMEOUT = "nl.gmt.data.pool.idle_timeout";
+    public static final String ACQUIRE_TIMEOUT = "nl.gmt.data.pool.acquire_timeout";
+
+    private ConnectionPool pool;
+
+    @Override
+    public void configure(Map configurationValues) {
+        String driver = (String)configurationValues.get(AvailableSettings.DRIVER);
+        if (driver != null) {
+            try {
+                Class.forName(driver);
+            } catch (ClassNotFoundException e) {
+                throw new HibernateException(String.format("Cannot load JDBC driver '%s'", driver), e);
+            }
+        }
+
+        String url = (String)configurationValues.get(AvailableSettings.URL);
+        if (url == null) {
+            throw new HibernateException("Missing connection URL");
+        }
+
+        Properties properties = ConnectionProviderInitiator.getConnectionProperties(configurationValues);
+
+        String user = (String)configurationValues.get(AvailableSettings.USER);
+        if (user != null) {
+            properties.setProperty("user", user);
+        }
+        String password = (String)configurationValues.get(AvailableSettings.PASS);
+        if (password != null) {
+            properties.setProperty("password", password);
+        }
+
+        pool = new ConnectionPool(
+            url,
+            properties,
+            ConfigurationHelper.getInt(MIN_SIZE, configurationValues, 0),
+            ConfigurationHelper.getInt(MAX_SIZE, configurationValues, DbConfiguration.DEFAULT_CONNECTION_POOL_MAX_SIZE),
+            ConfigurationHelper.getInt(STATEMENT_CACHE_SIZE, configurationValues, 0),
+            ConfigurationHelper.getInt(VALIDATION_TIMEOUT, configurationValues, 5),
+            ConfigurationHelper.getInt(IDLE_TIMEOUT, configurationValues, 600),
+            ConfigurationHelper.getInt(ACQUIRE_TIMEOUT, configurationValues, 30000)
+        );
+    }
+
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return pool.getConnection();
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    @Override
+    public void stop() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class unwrapType) {
+        return ConnectionProvider.class.equals(unwrapType) ||
+            LocalConnectionProvider.class.isAssignableFrom(unwrapType) ||
+            ConnectionPool.class.equals(unwrapType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (ConnectionProvider.class.equals(unwrapType) || LocalConnectionProvider.class.isAssignableFrom(unwrapType)) {
+            return (T)this;
+        }
+        if (ConnectionPool.class.equals(unwrapType)) {
+            return (T)pool;
+        }
+
+        throw new UnknownUnwrapTypeException(unwrapType);
+    }
+}
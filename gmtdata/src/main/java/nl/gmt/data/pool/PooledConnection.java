@@ -0,0 +1,358 @@
+package nl.gmt.data.pool;
+
+import org.jboss.logging.Logger;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class PooledConnection {
+    private static final Logger LOG = Logger.getLogger(PooledConnection.class);
+
+    private static final Class<?>[] CONNECTION_INTERFACES = { Connection.class };
+    private static final Class<?>[] STATEMENT_INTERFACES = { PreparedStatement.class };
+
+    private final ConnectionPool pool;
+    private final Connection connection;
+    private final int statementCacheSize;
+    private final LinkedHashMap<List<Object>, PreparedStatement> statements;
+    private final boolean autoCommit;
+    private final boolean readOnly;
+    private final int transactionIsolation;
+    private boolean currentAutoCommit;
+    private boolean resetReadOnly;
+    private boolean resetTransactionIsolation;
+    private volatile long lastAccess;
+    private volatile boolean broken;
+    private volatile Object tag;
+
+    PooledConnection(ConnectionPool pool, Connection connection, int statementCacheSize) throws SQLException {
+        this.pool = pool;
+        this.connection = connection;
+        this.statementCacheSize = statementCacheSize;
+
+        autoCommit = connection.getAutoCommit();
+        readOnly = connection.isReadOnly();
+        transactionIsolation = connection.getTransactionIsolation();
+        currentAutoCommit = autoCommit;
+        lastAccess = System.nanoTime();
+
+        if (statementCacheSize > 0) {
+            statements = new LinkedHashMap<List<Object>, PreparedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<Object>, PreparedStatement> eldest) {
+                    if (size() <= PooledConnection.this.statementCacheSize) {
+                        return false;
+                    }
+
+                    closeQuietly(eldest.getValue());
+
+                    return true;
+                }
+            };
+        } else {
+            statements = null;
+        }
+    }
+
+    long getLastAccess() {
+        return lastAccess;
+    }
+
+    boolean isBroken() {
+        return broken;
+    }
+
+    void markBroken() {
+        broken = true;
+    }
+
+    Object getTag() {
+        return tag;
+    }
+
+    void setTag(Object tag) {
+        this.tag = tag;
+    }
+
+    static PooledConnection fromProxy(Connection connection) {
+        if (connection != null && Proxy.isProxyClass(connection.getClass())) {
+            InvocationHandler handler = Proxy.getInvocationHandler(connection);
+
+            if (handler instanceof ConnectionHandler) {
+                return ((ConnectionHandler)handler).getPooledConnection();
+            }
+        }
+
+        throw new IllegalArgumentException("Connection does not belong to a connection pool");
+    }
+
+    Connection open() {
+        ConnectionHandler handler = new ConnectionHandler();
+
+        handler.proxy = (Connection)Proxy.newProxyInstance(getClass().getClassLoader(), CONNECTION_INTERFACES, handler);
+
+        return handler.proxy;
+    }
+
+    boolean isValid(int timeout) {
+        try {
+            return connection.isValid(timeout);
+        } catch (SQLException e) {
+            return false;
+        } catch (AbstractMethodError e) {
+            // Drivers that predate JDBC 4 don't implement isValid.
+
+            return true;
+        }
+    }
+
+    void reset() throws SQLException {
+        // Restore the state the connection was created with so the next user gets a clean
+        // connection. Open transactions are rolled back.
+
+        if (currentAutoCommit != autoCommit) {
+            if (!currentAutoCommit) {
+                connection.rollback();
+            }
+            connection.setAutoCommit(autoCommit);
+            currentAutoCommit = autoCommit;
+        }
+        if (resetReadOnly) {
+            connection.setReadOnly(readOnly);
+            resetReadOnly = false;
+        }
+        if (resetTransactionIsolation) {
+            connection.setTransactionIsolation(transactionIsolation);
+            resetTransactionIsolation = false;
+        }
+
+        connection.clearWarnings();
+
+        lastAccess = System.nanoTime();
+    }
+
+    void closePhysical() {
+        if (statements != null) {
+            synchronized (statements) {
+                for (PreparedStatement statement : statements.values()) {
+                    closeQuietly(statement);
+                }
+
+                statements.clear();
+            }
+        }
+
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LOG.debug("Cannot close connection", e);
+        }
+    }
+
+    private Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+
+            // SQL state class 08 signals that the connection itself has failed.
+
+            if (cause instanceof SQLException) {
+                String sqlState = ((SQLException)cause).getSQLState();
+
+                if (sqlState != null && sqlState.startsWith("08")) {
+                    broken = true;
+                }
+            }
+
+            throw cause;
+        }
+    }
+
+    private static boolean isCacheable(Object[] args) {
+        // Only statements that are fully identified by their SQL and integer options are
+        // cached; the variants taking column arrays are not.
+
+        for (Object arg : args) {
+            if (!(arg instanceof String || arg instanceof Integer)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private PreparedStatement prepareCached(Connection proxy, Method method, Object[] args) throws Throwable {
+        List<Object> key = Arrays.asList(args);
+        PreparedStatement statement;
+
+        // A cached statement is removed while it's in use, so the same SQL can be prepared
+        // more than once at the same time.
+
+        synchronized (statements) {
+            statement = statements.remove(key);
+        }
+
+        if (statement == null) {
+            statement = (PreparedStatement)invoke(connection, method, args);
+        }
+
+        return (PreparedStatement)Proxy.newProxyInstance(
+            getClass().getClassLoader(),
+            STATEMENT_INTERFACES,
+            new StatementHandler(proxy, key, statement)
+        );
+    }
+
+    private void returnStatement(List<Object> key, PreparedStatement statement, boolean reusable) {
+        if (reusable && !broken) {
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+
+                synchronized (statements) {
+                    if (!statements.containsKey(key)) {
+                        statements.put(key, statement);
+                        return;
+                    }
+                }
+            } catch (SQLException e) {
+                LOG.debug("Cannot reset statement", e);
+            }
+        }
+
+        closeQuietly(statement);
+    }
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            LOG.debug("Cannot close statement", e);
+        }
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+        private Connection proxy;
+        private boolean closed;
+
+        private PooledConnection getPooledConnection() {
+            return PooledConnection.this;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        pool.release(PooledConnection.this);
+                    }
+                    return null;
+
+                case "isClosed":
+                    return closed || connection.isClosed();
+
+                case "equals":
+                    return proxy == args[0];
+
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+
+                case "toString":
+                    return "Pooled " + connection;
+            }
+
+            if (closed) {
+                throw new SQLException("Connection has been returned to the pool");
+            }
+
+            switch (method.getName()) {
+                case "setAutoCommit":
+                    Object result = PooledConnection.this.invoke(connection, method, args);
+                    currentAutoCommit = (Boolean)args[0];
+                    return result;
+
+                case "setReadOnly":
+                    resetReadOnly = true;
+                    break;
+
+                case "setTransactionIsolation":
+                    resetTransactionIsolation = true;
+                    break;
+
+                case "prepareStatement":
+                    if (statements != null && isCacheable(args)) {
+                        return prepareCached(this.proxy, method, args);
+                    }
+                    break;
+            }
+
+            return PooledConnection.this.invoke(connection, method, args);
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+        private final Connection connection;
+        private final List<Object> key;
+        private final PreparedStatement statement;
+        private boolean closed;
+        private boolean reusable = true;
+
+        private StatementHandler(Connection connection, List<Object> key, PreparedStatement statement) {
+            this.connection = connection;
+            this.key = key;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        returnStatement(key, statement, reusable);
+                    }
+                    return null;
+
+                case "isClosed":
+                    return closed || statement.isClosed();
+
+                case "getConnection":
+                    return connection;
+
+                case "equals":
+                    return proxy == args[0];
+
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+
+                case "toString":
+                    return statement.toString();
+            }
+
+            if (closed) {
+                throw new SQLException("Statement has been closed");
+            }
+
+            // Statements of which the options have been changed are not reused, because
+            // the next user wouldn't expect these options.
+
+            if (method.getDeclaringClass() == Statement.class && method.getName().startsWith("set")) {
+                reusable = false;
+            }
+
+            return PooledConnection.this.invoke(statement, method, args);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package nl.gmt.data.schema;
+
+import org.apache.commons.lang.Validate;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class SchemaArtifact {
+    public static final String EXTENSION = ".bin";
+
+    private static final int MAGIC = 0x474d5453;
+    private static final int VERSION = 1;
+
+    private final Schema schema;
+    private final List<String> files;
+
+    SchemaArtifact(Schema schema, List<String> files) {
+        Validate.notNull(schema, "schema");
+        Validate.notNull(files, "files");
+
+        this.schema = schema;
+        this.files = Collections.unmodifiableList(new ArrayList<>(files));
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    public List<String> getFiles() {
+        return files;
+    }
+
+    public void write(OutputStream os) throws IOException {
+        Validate.notNull(os, "os");
+
+        DataOutputStream dos = new DataOutputStream(os);
+
+        dos.writeInt(MAGIC);
+        dos.writeInt(VERSION);
+        dos.flush();
+
+        GZIPOutputStream gzos = new GZIPOutputStream(os);
+        ObjectOutputStream oos = new ObjectOutputStream(gzos);
+
+        oos.writeObject(new ArrayList<>(files));
+        oos.writeObject(schema);
+        oos.flush();
+
+        gzos.finish();
+    }
+
+    @SuppressWarnings("unchecked")
+    public static SchemaArtifact read(InputStream is) throws IOException {
+        Validate.notNull(is, "is");
+
+        DataInputStream dis = new DataInputStream(is);
+
+        if (dis.readInt() != MAGIC || dis.readInt() != VERSION) {
+            return null;
+        }
+
+        // The schema classes don't declare a serial version, so an artifact written by a
+        // different version of the schema classes fails to load instead of loading wrong.
+
+        try {
+            ObjectInputStream ois = new ObjectInputStream(new GZIPInputStream(is));
+
+            List<String> files = (List<String>)ois.readObject();
+            Schema schema = (Schema)ois.readObject();
+
+            return new SchemaArtifact(schema, files);
+        } catch (ClassNotFoundException | InvalidClassException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package nl.gmt.data.schema;
+
+public enum SchemaCache {
+    UNSET,
+    READ_ONLY,
+    NONSTRICT_READ_WRITE,
+    READ_WRITE,
+    TRANSACTIONAL;
+}
@@ -8,6 +8,7 @@ public class SchemaClass extends SchemaClassBase {
     private String resolvedDbName;
     private boolean dynamicInsert;
     private boolean dynamicUpdate;
+    private SchemaCache cache = SchemaCache.UNSET;
 
     SchemaClass(SchemaParserLocation location) {
         super(location);
@@ -68,4 +69,12 @@ public class SchemaClass extends SchemaClassBase {
     public void setDynamicUpdate(boolean dynamicUpdate) {
         this.dynamicUpdate = dynamicUpdate;
     }
+
+    public SchemaCache getCache() {
+        return cache;
+    }
+
+    void setCache(SchemaCache cache) {
+        this.cache = cache;
+    }
 }
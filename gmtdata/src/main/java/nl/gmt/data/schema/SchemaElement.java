@@ -1,6 +1,8 @@
 package nl.gmt.data.schema;
 
-public abstract class SchemaElement {
+import java.io.Serializable;
+
+public abstract class SchemaElement implements Serializable {
     private final SchemaParserLocation location;
 
     SchemaElement(SchemaParserLocation location) {
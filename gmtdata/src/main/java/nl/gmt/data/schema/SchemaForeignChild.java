@@ -2,6 +2,7 @@ package nl.gmt.data.schema;
 
 public class SchemaForeignChild extends SchemaForeignBase {
     private String classProperty;
+    private SchemaCache cache = SchemaCache.UNSET;
 
     SchemaForeignChild(SchemaParserLocation location) {
         super(SchemaForeignType.CHILD, location);
@@ -14,4 +15,12 @@ public class SchemaForeignChild extends SchemaForeignBase {
     void setClassProperty(String classProperty) {
         this.classProperty = classProperty;
     }
+
+    public SchemaCache getCache() {
+        return cache;
+    }
+
+    void setCache(SchemaCache cache) {
+        this.cache = cache;
+    }
 }
@@ -4,15 +4,20 @@ import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.Validate;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
 
 public class SchemaParserExecutor {
+    private static final String SYSTEM_SCHEMA = "resource://System.schema";
+
     private final Map<String, Boolean> includes = new HashMap<>();
     private final List<String> hashes = new ArrayList<>();
+    private final List<String> files = new ArrayList<>();
     private final SchemaCallback callback;
 
     public SchemaParserExecutor(SchemaCallback callback) {
@@ -23,7 +28,7 @@ public class SchemaParserExecutor {
         Schema schema = new Schema();
 
         try (InputStream is = getClass().getResourceAsStream("System.schema")) {
-            parse(is, "resource://System.schema", schema);
+            parse(is, SYSTEM_SCHEMA, schema);
         } catch (Throwable e) {
             throw new SchemaException("Cannot parse system schema", e);
         }
@@ -77,15 +82,80 @@ public class SchemaParserExecutor {
         // result doesn't change just because files were read in a
         // different order (for some reason).
 
-        Collections.sort(hashes);
-
-        schema.setSchemaHash(Hex.encodeHexString(DigestUtils.sha1(StringUtils.join(hashes, ":"))));
+        schema.setSchemaHash(combineHashes(hashes));
 
         schema.validate(rules);
 
         return schema;
     }
 
+    public SchemaArtifact createArtifact(Schema schema) {
+        Validate.notNull(schema, "schema");
+        Validate.isTrue(files.size() > 0, "Schema has not been parsed");
+
+        return new SchemaArtifact(schema, files);
+    }
+
+    public Schema parseCompiled(String schemaName, SchemaRules rules) throws SchemaException {
+        // A precompiled schema is only used when all files it was built from are unchanged.
+        // It's validated again because the data types are resolved against the rules of the
+        // database it's used with. Otherwise the schema is parsed from the source files.
+
+        SchemaArtifact artifact = loadArtifact(schemaName);
+
+        if (artifact != null) {
+            String schemaHash = computeHash(artifact.getFiles());
+
+            if (schemaHash != null && StringUtils.equals(schemaHash, artifact.getSchema().getSchemaHash())) {
+                Schema schema = artifact.getSchema();
+
+                schema.validate(rules);
+
+                return schema;
+            }
+        }
+
+        return parse(schemaName, rules);
+    }
+
+    private SchemaArtifact loadArtifact(String schemaName) {
+        try (InputStream is = callback.loadFile(schemaName + SchemaArtifact.EXTENSION)) {
+            if (is == null) {
+                return null;
+            }
+
+            return SchemaArtifact.read(new BufferedInputStream(is));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private String computeHash(List<String> files) {
+        List<String> hashes = new ArrayList<>();
+
+        for (String file : files) {
+            try (InputStream is = file.equals(SYSTEM_SCHEMA) ? getClass().getResourceAsStream("System.schema") : callback.loadFile(file)) {
+                if (is == null) {
+                    return null;
+                }
+
+                hashes.add(Hex.encodeHexString(DigestUtils.sha1(is)));
+            } catch (Exception e) {
+                return null;
+            }
+        }
+
+        return combineHashes(hashes);
+    }
+
+    private static String combineHashes(List<String> hashes) {
+        hashes = new ArrayList<>(hashes);
+
+        Collections.sort(hashes);
+
+        return Hex.encodeHexString(DigestUtils.sha1(StringUtils.join(hashes, ":")));
+    }
+
     private void parse(String schemaName, Schema schema) throws IOException, SchemaException {
         InputStream is;
 
@@ -109,6 +179,7 @@ public class SchemaParserExecutor {
         byte[] bytes = IOUtils.toByteArray(is);
 
         hashes.add(Hex.encodeHexString(DigestUtils.sha1(bytes)));
+        files.add(schemaName);
 
         SchemaParserResult result;
 
@@ -2,7 +2,9 @@ package nl.gmt.data.schema;
 
 import org.apache.commons.lang.StringUtils;
 
-public final class SchemaParserLocation {
+import java.io.Serializable;
+
+public final class SchemaParserLocation implements Serializable {
     private final String fileName;
     private final int line;
     private final int column;
@@ -253,6 +253,10 @@ public class SchemaParserV2 {
                     case "dynamicUpdate":
                         klass.setDynamicUpdate(parseXmlBoolean(attribute.getValue()));
                         break;
+
+                    case "cache":
+                        klass.setCache(parseCache(attribute.getValue()));
+                        break;
                 }
             }
         }
@@ -455,6 +459,10 @@ public class SchemaParserV2 {
                     case "classProperty":
                         result.setClassProperty(attribute.getValue());
                         break;
+
+                    case "cache":
+                        result.setCache(parseCache(attribute.getValue()));
+                        break;
                 }
             }
         }
@@ -710,6 +718,25 @@ public class SchemaParserV2 {
         }
     }
 
+    private SchemaCache parseCache(String value) throws SchemaException {
+        switch (value) {
+            case "readOnly":
+                return SchemaCache.READ_ONLY;
+
+            case "nonstrictReadWrite":
+                return SchemaCache.NONSTRICT_READ_WRITE;
+
+            case "readWrite":
+                return SchemaCache.READ_WRITE;
+
+            case "transactional":
+                return SchemaCache.TRANSACTIONAL;
+
+            default:
+                throw new SchemaException(String.format("Invalid cache '%s'", value));
+        }
+    }
+
     private SchemaLazy parseLazy(String value) throws SchemaException {
         return parseXmlBoolean(value) ? SchemaLazy.LAZY : SchemaLazy.NOT_LAZY;
     }
@@ -1,20 +1,27 @@
 package nl.gmt.data;
 
+import nl.gmt.data.drivers.DatabaseDriver;
+import nl.gmt.data.migrate.Manifest;
 import nl.gmt.data.test.TestConnection;
 import nl.gmt.data.test.model.Address;
 import nl.gmt.data.test.model.Gender;
 import nl.gmt.data.test.model.Relation;
 import nl.gmt.data.test.model.RelationRepository;
 import org.apache.commons.io.IOUtils;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
 import java.io.FileOutputStream;
 import java.io.OutputStream;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.*;
 
 @RunWith(JUnit4.class)
 public class DbConnectionFixture extends DbConnectionFixtureBase {
@@ -106,4 +113,234 @@ public class DbConnectionFixture extends DbConnectionFixtureBase {
             }
         }
     }
+
+    @Test
+    public void repositoriesAreCachedPerContext() throws Exception {
+        try (TestConnection db = openDb()) {
+            db.migrateDatabase();
+
+            RelationRepository repository;
+
+            try (DbContext ctx = db.openContext()) {
+                repository = ctx.getRepository(RelationRepository.class);
+
+                assertSame(repository, ctx.getRepository(RelationRepository.class));
+                assertSame(ctx, repository.getContext());
+
+                ctx.commit();
+            }
+
+            try (DbContext ctx = db.openContext()) {
+                assertNotSame(repository, ctx.getRepository(RelationRepository.class));
+
+                ctx.commit();
+            }
+        }
+    }
+
+    @Test
+    public void blueprint() throws Exception {
+        try (TestConnection db = openDb()) {
+            try (TestConnection other = new TestConnection(createConfiguration(), db.getBlueprint())) {
+                assertSame(db.getEntitySchema(), other.getEntitySchema());
+
+                try (DbContext ctx = db.openContext()) {
+                    ctx.save(new Relation("Pieter van Ginkel", Gender.MALE, null));
+
+                    ctx.commit();
+                }
+
+                try (DbContext ctx = other.openContext()) {
+                    assertNotNull(ctx.getRepository(RelationRepository.class).findByName("Pieter van Ginkel"));
+
+                    ctx.commit();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void migrateDatabaseWritesManifest() throws Exception {
+        try (TestConnection db = openDb()) {
+            String schemaHash = db.getBlueprint().getSchema().getSchemaHash();
+            DatabaseDriver driver = ((DbConnection<?>)db).getDriver();
+
+            try (Connection connection = driver.createConnection(createConfiguration().getConnectionString())) {
+                Manifest manifest = driver.readManifest(connection);
+
+                assertNotNull(manifest);
+                assertEquals(Manifest.VERSION, manifest.getVersion());
+                assertEquals(schemaHash, manifest.getSchemaHash());
+            }
+
+            // A forced diff still finds no differences when the manifest is current.
+
+            db.migrateDatabase();
+            db.migrateDatabase(null, true);
+        }
+    }
+
+    @Test
+    public void migrateDatabaseReplacesOutdatedManifest() throws Exception {
+        try (TestConnection db = openDb()) {
+            String schemaHash = db.getBlueprint().getSchema().getSchemaHash();
+            DatabaseDriver driver = ((DbConnection<?>)db).getDriver();
+            String connectionString = createConfiguration().getConnectionString();
+
+            try (Connection connection = driver.createConnection(connectionString)) {
+                driver.writeManifest(connection, new Manifest("0", schemaHash), db.getBlueprint().getSchema());
+            }
+
+            // A manifest of another version isn't trusted even when the schema hash matches.
+
+            db.migrateDatabase();
+
+            try (Connection connection = driver.createConnection(connectionString)) {
+                assertEquals(Manifest.VERSION, driver.readManifest(connection).getVersion());
+            }
+        }
+    }
+
+    @Test
+    public void readOnlyContext() throws Exception {
+        try (TestConnection db = openDb()) {
+            try (DbContext ctx = db.openContext()) {
+                ctx.saveOrUpdate(new Relation("Pieter van Ginkel", Gender.MALE, null));
+
+                ctx.commit();
+            }
+
+            try (DbContext ctx = db.openReadOnlyContext()) {
+                assertTrue(ctx.isReadOnly());
+
+                Relation relation = ctx.getRepository(RelationRepository.class).findByName("Pieter van Ginkel");
+
+                assertNotNull(relation);
+                assertTrue(ctx.isReadOnly(relation));
+
+                // Changes to entities loaded in a read only context are not written back.
+
+                relation.setName("Laura van Ginkel");
+
+                ctx.commit();
+            }
+
+            try (DbContext ctx = db.openContext()) {
+                assertNotNull(ctx.getRepository(RelationRepository.class).findByName("Pieter van Ginkel"));
+
+                ctx.commit();
+            }
+        }
+    }
+
+    @Test
+    public void bulkContext() throws Exception {
+        try (TestConnection db = openDb()) {
+            List<Relation> relations = new ArrayList<>();
+
+            for (int i = 0; i < 500; i++) {
+                relations.add(new Relation("Relation " + i, Gender.MALE, null));
+            }
+
+            try (DbBulkContext ctx = db.openBulkContext()) {
+                ctx.getRepository(RelationRepository.class).insertAll(relations);
+
+                ctx.commit();
+            }
+
+            try (DbContext ctx = db.openContext()) {
+                assertEquals(500, ctx.getRepository(RelationRepository.class).getCount());
+
+                ctx.commit();
+            }
+
+            try (DbBulkContext ctx = db.openBulkContext()) {
+                ctx.getRepository(RelationRepository.class).deleteAll(relations);
+
+                ctx.commit();
+            }
+
+            try (DbContext ctx = db.openContext()) {
+                assertEquals(0, ctx.getRepository(RelationRepository.class).getCount());
+
+                ctx.commit();
+            }
+        }
+    }
+
+    @Test
+    public void streamQuery() throws Exception {
+        try (TestConnection db = openDb()) {
+            try (DbContext ctx = db.openContext()) {
+                for (int i = 0; i < 250; i++) {
+                    ctx.saveOrUpdate(new Relation("Relation " + i, Gender.MALE, null));
+                }
+
+                ctx.commit();
+            }
+
+            try (DbContext ctx = db.openContext()) {
+                int count = 0;
+
+                try (DbQueryStream<Relation> stream = ctx.<Relation>createQuery("from Relation r").stream(100)) {
+                    for (Relation relation : stream) {
+                        assertNotNull(relation.getName());
+
+                        count++;
+                    }
+                }
+
+                assertEquals(250, count);
+
+                // At most one batch of rows is kept in the session.
+
+                assertTrue(((SessionImplementor)ctx.getSession()).getPersistenceContext().getNumberOfManagedEntities() <= 100);
+
+                ctx.commit();
+            }
+
+            try (DbContext ctx = db.openContext()) {
+                final List<Integer> chunks = new ArrayList<>();
+
+                ctx.<Relation>createQuery("from Relation r").forEachChunk(100, new DbQueryChunkHandler<Relation>() {
+                    @Override
+                    public void handle(List<Relation> chunk) {
+                        chunks.add(chunk.size());
+                    }
+                });
+
+                assertEquals(Arrays.asList(100, 100, 50), chunks);
+
+                ctx.commit();
+            }
+        }
+    }
+
+    @Test
+    public void executeAsync() throws Exception {
+        try (TestConnection db = openDb()) {
+            db.execute(new DbWork<Void>() {
+                @Override
+                public Void execute(DbContext ctx) throws Exception {
+                    ctx.saveOrUpdate(new Relation("Pieter van Ginkel", Gender.MALE, null));
+                    return null;
+                }
+            });
+
+            List<Future<Integer>> futures = new ArrayList<>();
+
+            for (int i = 0; i < 10; i++) {
+                futures.add(db.executeAsync(new DbWork<Integer>() {
+                    @Override
+                    public Integer execute(DbContext ctx) throws Exception {
+                        return ctx.getRepository(RelationRepository.class).getCount();
+                    }
+                }));
+            }
+
+            for (Future<Integer> future : futures) {
+                assertEquals(1, (int)future.get());
+            }
+        }
+    }
 }
@@ -0,0 +1,96 @@
+package nl.gmt.data;
+
+import nl.gmt.data.pool.ConnectionPool;
+import nl.gmt.data.pool.LocalConnectionPoolProvider;
+import nl.gmt.data.pool.TestDriver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class DbTenantIsolationFixture {
+    private File file;
+    private ConnectionPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("tenant", ".db");
+        pool = new LocalConnectionPoolProvider().createPool(TestDriver.getUrl(file), TestDriver.class.getName(), new DbConfiguration());
+
+        TestDriver.clearLog();
+    }
+
+    @After
+    public void tearDown() {
+        pool.close();
+
+        file.delete();
+    }
+
+    @Test
+    public void reusesConnectionOfTenant() throws Exception {
+        try (Connection connection = DbTenantIsolation.CATALOG.getConnection(pool, "tenant", "main")) {
+            assertEquals("tenant", pool.getTag(connection));
+        }
+
+        assertEquals(Collections.singletonList("catalog tenant"), TestDriver.getLog());
+
+        // The idle connection is already on the tenant, so it isn't switched again.
+
+        try (Connection connection = DbTenantIsolation.CATALOG.getConnection(pool, "tenant", "main")) {
+            assertEquals("tenant", pool.getTag(connection));
+        }
+
+        assertEquals(Collections.singletonList("catalog tenant"), TestDriver.getLog());
+
+        // Without a tenant, the connection is switched back to the default database.
+
+        try (Connection connection = DbTenantIsolation.CATALOG.getConnection(pool, null, "main")) {
+            assertNull(pool.getTag(connection));
+        }
+
+        assertEquals(Arrays.asList("catalog tenant", "catalog main"), TestDriver.getLog());
+    }
+
+    @Test
+    public void switchesSearchPath() throws Exception {
+        DbTenantIsolation.SEARCH_PATH.getConnection(pool, "tenant", "public").close();
+        DbTenantIsolation.SEARCH_PATH.getConnection(pool, "tenant", "public").close();
+        DbTenantIsolation.SEARCH_PATH.getConnection(pool, null, "public").close();
+
+        assertEquals(
+            Arrays.asList("execute SET search_path TO \"tenant\"", "execute SET search_path TO public"),
+            TestDriver.getLog()
+        );
+    }
+
+    @Test
+    public void discardsConnectionWhenSwitchFails() throws Exception {
+        DbTenantIsolation.CATALOG.getConnection(pool, "tenant", "main").close();
+
+        assertEquals(1, pool.getStatistics().getIdleCount());
+
+        try {
+            DbTenantIsolation.CATALOG.getConnection(pool, TestDriver.BROKEN, "main");
+
+            fail();
+        } catch (SQLException e) {
+            // Expected.
+        }
+
+        // The connection may be on either tenant, so it isn't returned to the pool.
+
+        assertEquals(0, pool.getStatistics().getActiveCount());
+        assertEquals(0, pool.getStatistics().getIdleCount());
+    }
+}
@@ -8,7 +8,10 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
-import static org.junit.Assert.assertEquals;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.*;
 
 @RunWith(JUnit4.class)
 public class DbUsageFixture extends DbConnectionFixtureBase {
@@ -72,6 +75,66 @@ public class DbUsageFixture extends DbConnectionFixtureBase {
         }
     }
 
+    @Test
+    public void findUsageOfMultiple() throws Exception {
+        try (TestConnection db = openDb()) {
+            Relation relation = buildData(db, true);
+            Relation unused = new Relation(
+                "Unused",
+                Gender.FEMALE,
+                null
+            );
+
+            Map<Entity, DbEntityUsage> usages;
+
+            try (DbContext ctx = db.openContext()) {
+                ctx.saveOrUpdate(unused);
+
+                usages = db.getUsage(ctx, Arrays.asList(relation, unused));
+
+                ctx.commit();
+            }
+
+            EntityType addressType = db.getEntitySchema().getEntityType("Address");
+
+            assertEquals(2, usages.size());
+            assertEquals(3, usages.get(relation).getCount());
+            assertEquals(1, usages.get(relation).getRelations().size());
+            assertEquals(addressType, usages.get(relation).getRelations().get(0).getType());
+            assertEquals(0, usages.get(unused).getCount());
+            assertEquals(0, usages.get(unused).getRelations().size());
+        }
+    }
+
+    @Test
+    public void hasUsage() throws Exception {
+        try (TestConnection db = openDb()) {
+            Relation relation = buildData(db, true);
+
+            EntityType addressType = db.getEntitySchema().getEntityType("Address");
+
+            try (DbContext ctx = db.openContext()) {
+                assertTrue(db.hasUsage(ctx, relation));
+                assertFalse(db.hasUsage(ctx, relation, addressType));
+
+                ctx.commit();
+            }
+        }
+    }
+
+    @Test
+    public void hasNoUsage() throws Exception {
+        try (TestConnection db = openDb()) {
+            Relation relation = buildData(db, false);
+
+            try (DbContext ctx = db.openContext()) {
+                assertFalse(db.hasUsage(ctx, relation));
+
+                ctx.commit();
+            }
+        }
+    }
+
     private Relation buildData(TestConnection db, boolean createDependent) throws Exception {
         try (DbContext ctx = db.openContext()) {
             for (Relation relation : ctx.<Relation>createQuery("from Relation r")) {
@@ -6,6 +6,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.util.Arrays;
 import java.util.Map;
 
 import static org.junit.Assert.*;
@@ -307,4 +308,102 @@ public class UniqueIndexFixture extends DbConnectionFixtureBase {
             ctx.commit();
         }
     }
+
+    @Test
+    public void batchUniqueIndexInsert() throws Exception {
+        TestConnection db = openDb();
+
+        // First create a relation that is going to conflict.
+
+        try (DbContext ctx = db.openContext()) {
+            ctx.saveOrUpdate(new Relation("Relation1", Gender.MALE, null));
+
+            ctx.commit();
+        }
+
+        // Then, validate a batch with a conflict with the database, two relations that conflict
+        // with each other and one valid relation.
+
+        try (DbContext ctx = db.openContext()) {
+            EntityValidator validator = new EntityValidator(ctx);
+
+            Relation conflict = new Relation("Relation1", Gender.MALE, null);
+            Relation duplicate1 = new Relation("Relation2", Gender.MALE, null);
+            Relation duplicate2 = new Relation("Relation2", Gender.FEMALE, null);
+            Relation valid = new Relation("Relation3", Gender.MALE, null);
+
+            Map<Entity, Map<EntityField, String>> messages = validator.validateAll(
+                Arrays.asList(conflict, duplicate1, duplicate2, valid),
+                EntityValidatorMode.CREATE
+            );
+
+            assertEquals(4, messages.size());
+            assertEquals(1, messages.get(conflict).size());
+            assertEquals(1, messages.get(duplicate1).size());
+            assertEquals(1, messages.get(duplicate2).size());
+            assertEquals(0, messages.get(valid).size());
+
+            for (Map.Entry<EntityField, String> entry : messages.get(conflict).entrySet()) {
+                assertEquals("name", entry.getKey().getFieldName());
+                assertEquals("Must be unique", entry.getValue());
+            }
+
+            ctx.commit();
+        }
+    }
+
+    @Test
+    public void batchMultiPropertyUniqueIndexUpdate() throws Exception {
+        TestConnection db = openDb();
+
+        // First create the addresses that are going to be updated.
+
+        try (DbContext ctx = db.openContext()) {
+            Relation relation = new Relation("Relation1", Gender.MALE, null);
+            ctx.saveOrUpdate(relation);
+
+            ctx.saveOrUpdate(new Address("Street1", 1, "City1", relation));
+            ctx.saveOrUpdate(new Address("Street2", 1, "City1", relation));
+            ctx.saveOrUpdate(new Address("Street3", 1, "City1", relation));
+
+            ctx.commit();
+        }
+
+        // Then, validate an update that conflicts, an unchanged address and an update that doesn't conflict.
+
+        try (DbContext ctx = db.openContext()) {
+            EntityValidator validator = new EntityValidator(ctx);
+
+            Relation relation = ctx.getRepository(RelationRepository.class).findByName("Relation1");
+            AddressRepository repository = ctx.getRepository(AddressRepository.class);
+
+            Address conflict = repository.findByStreetAndHouseNumberAndCityAndRelation("Street2", 1, "City1", relation);
+            Address unchanged = repository.findByStreetAndHouseNumberAndCityAndRelation("Street3", 1, "City1", relation);
+            Address changed = repository.findByStreetAndHouseNumberAndCityAndRelation("Street1", 1, "City1", relation);
+
+            conflict.setStreet("Street3");
+            changed.setStreet("Street4");
+
+            Map<Entity, Map<EntityField, String>> messages = validator.validateAll(
+                Arrays.asList(conflict, unchanged, changed),
+                EntityValidatorMode.UPDATE
+            );
+
+            EntityField street = db.getEntitySchema().getEntityType(Address.class).getField("street");
+
+            // The conflicting address conflicts both with the unchanged address in the batch and
+            // with the row of the unchanged address in the database.
+
+            assertEquals("Must be unique", messages.get(conflict).get(street));
+            assertEquals("Must be unique", messages.get(unchanged).get(street));
+            assertEquals(0, messages.get(changed).size());
+
+            // Evict the entities so that we can commit.
+
+            ctx.evict(conflict);
+            ctx.evict(changed);
+
+            ctx.commit();
+        }
+    }
 }
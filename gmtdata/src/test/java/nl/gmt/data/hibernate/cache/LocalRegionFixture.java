@@ -0,0 +1,171 @@
+package nl.gmt.data.hibernate.cache;
+
+import org.hibernate.cache.internal.CacheDataDescriptionImpl;
+import org.hibernate.cache.spi.EntityRegion;
+import org.hibernate.cache.spi.access.AccessType;
+import org.hibernate.cache.spi.access.EntityRegionAccessStrategy;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.internal.util.compare.ComparableComparator;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class LocalRegionFixture {
+    private static final String KEY = "key";
+
+    @Test
+    public void putFromLoadWaitsForUnlock() throws Exception {
+        LocalRegionFactory factory = createFactory(new Properties());
+        EntityRegionAccessStrategy access = createAccess(factory, false);
+
+        long startedBeforeUnlock = factory.nextTimestamp() - 1;
+
+        SoftLock lock = access.lockItem(null, KEY, null);
+
+        assertFalse(access.putFromLoad(null, KEY, "stale", startedBeforeUnlock, null));
+
+        access.unlockItem(null, KEY, lock);
+
+        // A transaction that started before the writer completed may have read the old
+        // state, so it can't put it back.
+
+        assertFalse(access.putFromLoad(null, KEY, "stale", startedBeforeUnlock, null));
+        assertNull(access.get(null, KEY, startedBeforeUnlock));
+
+        long startedAfterUnlock = factory.nextTimestamp() + 1;
+
+        assertTrue(access.putFromLoad(null, KEY, "fresh", startedAfterUnlock, null));
+        assertEquals("fresh", access.get(null, KEY, startedAfterUnlock));
+    }
+
+    @Test
+    public void afterUpdateCachesNewValue() throws Exception {
+        LocalRegionFactory factory = createFactory(new Properties());
+        EntityRegionAccessStrategy access = createAccess(factory, false);
+
+        long startedBeforeUpdate = factory.nextTimestamp() - 1;
+
+        SoftLock lock = access.lockItem(null, KEY, null);
+
+        assertTrue(access.afterUpdate(null, KEY, "updated", null, null, lock));
+
+        assertFalse(access.putFromLoad(null, KEY, "stale", startedBeforeUpdate, null));
+        assertEquals("updated", access.get(null, KEY, factory.nextTimestamp()));
+    }
+
+    @Test
+    public void putFromLoadComparesVersions() throws Exception {
+        LocalRegionFactory factory = createFactory(new Properties());
+        EntityRegionAccessStrategy access = createAccess(factory, true);
+
+        SoftLock lock = access.lockItem(null, KEY, 1);
+
+        assertTrue(access.afterUpdate(null, KEY, "version 2", 2, 1, lock));
+
+        long now = factory.nextTimestamp() + 1;
+
+        assertFalse(access.putFromLoad(null, KEY, "version 1", now, 1));
+        assertEquals("version 2", access.get(null, KEY, now));
+
+        assertTrue(access.putFromLoad(null, KEY, "version 3", now, 3));
+        assertEquals("version 3", access.get(null, KEY, now));
+    }
+
+    @Test
+    public void concurrentWritersDontCache() throws Exception {
+        LocalRegionFactory factory = createFactory(new Properties());
+        EntityRegionAccessStrategy access = createAccess(factory, false);
+
+        SoftLock lock1 = access.lockItem(null, KEY, null);
+        SoftLock lock2 = access.lockItem(null, KEY, null);
+
+        assertFalse(access.afterUpdate(null, KEY, "first", null, null, lock1));
+        assertFalse(access.afterUpdate(null, KEY, "second", null, null, lock2));
+
+        assertNull(access.get(null, KEY, factory.nextTimestamp()));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(LocalRegionFactory.MAX_ENTRIES, "2");
+
+        LocalRegionFactory factory = createFactory(properties);
+        LocalRegion region = (LocalRegion)factory.buildQueryResultsRegion("test", properties);
+
+        region.put(null, "a", "a");
+        region.put(null, "b", "b");
+
+        assertEquals("a", region.get(null, "a"));
+
+        region.put(null, "c", "c");
+
+        assertEquals(2, region.getElementCountInMemory());
+        assertEquals("a", region.get(null, "a"));
+        assertNull(region.get(null, "b"));
+        assertEquals("c", region.get(null, "c"));
+    }
+
+    @Test
+    public void doesNotEvictLocks() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(LocalRegionFactory.MAX_ENTRIES, "2");
+
+        LocalRegionFactory factory = createFactory(properties);
+        EntityRegion region = factory.buildEntityRegion("test", properties, new CacheDataDescriptionImpl(true, false, null, null));
+        EntityRegionAccessStrategy access = region.buildAccessStrategy(AccessType.READ_WRITE);
+
+        long startedBeforeUpdate = factory.nextTimestamp();
+
+        access.lockItem(null, KEY, null);
+
+        access.putFromLoad(null, "a", "a", startedBeforeUpdate, null);
+        access.putFromLoad(null, "b", "b", startedBeforeUpdate, null);
+
+        assertEquals(2, region.getElementCountInMemory());
+        assertNull(access.get(null, "a", startedBeforeUpdate));
+        assertEquals("b", access.get(null, "b", startedBeforeUpdate));
+
+        // The item is still locked, so a load that started before the update isn't cached.
+
+        assertFalse(access.putFromLoad(null, KEY, "stale", startedBeforeUpdate, null));
+    }
+
+    @Test
+    public void timestampsIncrease() throws Exception {
+        LocalRegionFactory factory = createFactory(new Properties());
+
+        long last = factory.nextTimestamp();
+
+        for (int i = 0; i < 10000; i++) {
+            long next = factory.nextTimestamp();
+
+            assertTrue(next > last);
+
+            last = next;
+        }
+    }
+
+    private static LocalRegionFactory createFactory(Properties properties) {
+        LocalRegionFactory factory = new LocalRegionFactory();
+
+        factory.start(null, properties);
+
+        return factory;
+    }
+
+    private static EntityRegionAccessStrategy createAccess(LocalRegionFactory factory, boolean versioned) {
+        EntityRegion region = factory.buildEntityRegion(
+            "test",
+            new Properties(),
+            new CacheDataDescriptionImpl(true, versioned, versioned ? ComparableComparator.INSTANCE : null, null)
+        );
+
+        return region.buildAccessStrategy(AccessType.READ_WRITE);
+    }
+}
@@ -0,0 +1,200 @@
+package nl.gmt.data.pool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.sql.*;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class ConnectionPoolFixture {
+    private File file;
+    private ConnectionPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("pool", ".db");
+
+        TestDriver.clearLog();
+    }
+
+    @After
+    public void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+
+        file.delete();
+    }
+
+    @Test
+    public void acquireTimesOut() throws Exception {
+        pool = createPool(TestDriver.getUrl(file), 0, 100);
+
+        try (Connection connection = pool.getConnection()) {
+            try {
+                pool.getConnection();
+
+                fail();
+            } catch (SQLTimeoutException e) {
+                // Expected.
+            }
+
+            assertEquals(1, pool.getStatistics().getActiveCount());
+            assertEquals(0, pool.getStatistics().getPendingCount());
+        }
+
+        // The permit is available again once the connection is returned.
+
+        try (Connection connection = pool.getConnection()) {
+            assertNotNull(connection);
+        }
+    }
+
+    @Test
+    public void releasesPermitWhenConnectFails() throws Exception {
+        pool = createPool(TestDriver.getUrl(new File(file.getPath() + ".missing", "test.db")), 0, 100);
+
+        // When the permit isn't released, the second attempt times out instead.
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                pool.getConnection();
+
+                fail();
+            } catch (SQLTimeoutException e) {
+                fail();
+            } catch (SQLException e) {
+                // Expected.
+            }
+        }
+
+        assertEquals(0, pool.getStatistics().getActiveCount());
+    }
+
+    @Test
+    public void rollsBackAndResetsOnReturn() throws Exception {
+        pool = createPool(TestDriver.getUrl(file), 0, 100);
+
+        Connection connection = pool.getConnection();
+        PooledConnection pooledConnection = PooledConnection.fromProxy(connection);
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE Test (Id INTEGER)");
+        }
+
+        connection.setAutoCommit(false);
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("INSERT INTO Test (Id) VALUES (1)");
+        }
+
+        connection.close();
+
+        connection = pool.getConnection();
+
+        assertSame(pooledConnection, PooledConnection.fromProxy(connection));
+        assertTrue(connection.getAutoCommit());
+
+        try (
+            Statement stmt = connection.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM Test")
+        ) {
+            assertTrue(rs.next());
+            assertEquals(0, rs.getInt(1));
+        }
+
+        connection.close();
+
+        try {
+            connection.createStatement();
+
+            fail();
+        } catch (SQLException e) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void reusesAndEvictsStatements() throws Exception {
+        pool = createPool(TestDriver.getUrl(file), 1, 100);
+
+        try (Connection connection = pool.getConnection()) {
+            for (int i = 0; i < 2; i++) {
+                try (PreparedStatement stmt = connection.prepareStatement("SELECT 1")) {
+                    stmt.executeQuery().close();
+                }
+            }
+
+            assertEquals(Collections.singletonList("prepare SELECT 1"), TestDriver.getLog());
+
+            // The cache holds a single statement, so preparing another one evicts the first.
+
+            connection.prepareStatement("SELECT 2").close();
+            connection.prepareStatement("SELECT 1").close();
+
+            assertEquals(
+                Arrays.asList("prepare SELECT 1", "prepare SELECT 2", "close SELECT 1", "prepare SELECT 1", "close SELECT 2"),
+                TestDriver.getLog()
+            );
+
+            // Statements of which the options were changed aren't reused.
+
+            TestDriver.clearLog();
+
+            try (PreparedStatement stmt = connection.prepareStatement("SELECT 1")) {
+                stmt.setMaxRows(1);
+            }
+
+            assertEquals(Collections.singletonList("close SELECT 1"), TestDriver.getLog());
+        }
+    }
+
+    @Test
+    public void discardsBrokenConnections() throws Exception {
+        pool = createPool(TestDriver.getUrl(file), 0, 100);
+
+        Connection connection = pool.getConnection();
+        PooledConnection pooledConnection = PooledConnection.fromProxy(connection);
+
+        try {
+            connection.setCatalog(TestDriver.BROKEN);
+
+            fail();
+        } catch (SQLException e) {
+            assertEquals("08006", e.getSQLState());
+        }
+
+        connection.close();
+
+        assertEquals(0, pool.getStatistics().getIdleCount());
+
+        try (Connection newConnection = pool.getConnection()) {
+            assertNotSame(pooledConnection, PooledConnection.fromProxy(newConnection));
+        }
+
+        assertEquals(1, pool.getStatistics().getIdleCount());
+    }
+
+    @Test
+    public void discardClosesConnection() throws Exception {
+        pool = createPool(TestDriver.getUrl(file), 0, 100);
+
+        pool.discard(pool.getConnection());
+
+        assertEquals(0, pool.getStatistics().getActiveCount());
+        assertEquals(0, pool.getStatistics().getIdleCount());
+    }
+
+    private static ConnectionPool createPool(String url, int statementCacheSize, int acquireTimeoutMillis) {
+        return new ConnectionPool(url, new Properties(), 0, 1, statementCacheSize, 5, 600, acquireTimeoutMillis);
+    }
+}
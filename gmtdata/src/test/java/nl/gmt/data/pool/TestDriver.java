@@ -0,0 +1,162 @@
+package nl.gmt.data.pool;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+// Wraps SQLite connections, logs what is done with them and fails the way a broken
+// connection does.
+
+public class TestDriver implements Driver {
+    public static final String BROKEN = "broken";
+
+    private static final String PREFIX = "jdbc:gmtdata-test:";
+    private static final List<String> LOG = new ArrayList<>();
+
+    static {
+        try {
+            Class.forName("org.sqlite.JDBC");
+
+            DriverManager.registerDriver(new TestDriver());
+        } catch (ClassNotFoundException | SQLException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public static String getUrl(File file) {
+        return PREFIX + file.getPath();
+    }
+
+    public static List<String> getLog() {
+        synchronized (LOG) {
+            return new ArrayList<>(LOG);
+        }
+    }
+
+    public static void clearLog() {
+        synchronized (LOG) {
+            LOG.clear();
+        }
+    }
+
+    private static void log(String message) {
+        synchronized (LOG) {
+            LOG.add(message);
+        }
+    }
+
+    private static SQLException createFailure() {
+        // SQL state class 08 is a connection exception.
+
+        return new SQLException("Connection failure", "08006");
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+
+        final Connection connection = DriverManager.getConnection("jdbc:sqlite:" + url.substring(PREFIX.length()), info);
+
+        return (Connection)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class }, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "setCatalog":
+                        log("catalog " + args[0]);
+                        if (BROKEN.equals(args[0])) {
+                            throw createFailure();
+                        }
+                        return null;
+
+                    case "createStatement":
+                        return createStatement((Statement)TestDriver.invoke(connection, method, args));
+
+                    case "prepareStatement":
+                        log("prepare " + args[0]);
+                        return prepareStatement((String)args[0], (PreparedStatement)TestDriver.invoke(connection, method, args));
+                }
+
+                return TestDriver.invoke(connection, method, args);
+            }
+        });
+    }
+
+    private Statement createStatement(final Statement statement) {
+        return (Statement)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Statement.class }, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                // SQLite doesn't know SET, so these statements are only logged.
+
+                if (method.getName().equals("execute") && ((String)args[0]).startsWith("SET ")) {
+                    log("execute " + args[0]);
+                    if (((String)args[0]).contains(BROKEN)) {
+                        throw createFailure();
+                    }
+                    return false;
+                }
+
+                return TestDriver.invoke(statement, method, args);
+            }
+        });
+    }
+
+    private PreparedStatement prepareStatement(final String sql, final PreparedStatement statement) {
+        return (PreparedStatement)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { PreparedStatement.class }, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("close")) {
+                    log("close " + sql);
+                }
+
+                return TestDriver.invoke(statement, method, args);
+            }
+        });
+    }
+
+    @Override
+    public boolean acceptsURL(String url) throws SQLException {
+        return url != null && url.startsWith(PREFIX);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) throws SQLException {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+}
@@ -1,7 +1,7 @@
 package nl.gmt.data.test;
 
-import nl.gmt.data.support.ReflectionUtils;
 import nl.gmt.data.DataException;
+import nl.gmt.data.DbBlueprint;
 import nl.gmt.data.DbConfiguration;
 import nl.gmt.data.RepositoryService;
 import nl.gmt.data.schema.Schema;
@@ -13,7 +13,15 @@ public class TestConnection extends DbConnection<EntitySchema> {
         super(
             configuration,
             "Database.schema",
-            new RepositoryService(ReflectionUtils.getUrlFromClass(TestConnection.class))
+            RepositoryService.load(TestConnection.class.getClassLoader())
+        );
+    }
+
+    public TestConnection(DbConfiguration configuration, DbBlueprint<EntitySchema> blueprint) throws DataException {
+        super(
+            configuration,
+            blueprint,
+            RepositoryService.load(TestConnection.class.getClassLoader())
         );
     }
 
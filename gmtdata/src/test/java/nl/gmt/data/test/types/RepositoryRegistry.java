@@ -0,0 +1,20 @@
+package nl.gmt.data.test.types;
+
+public class RepositoryRegistry implements nl.gmt.data.RepositoryRegistry {
+    @Override
+    public void register(nl.gmt.data.RepositoryService repositoryService) {
+        repositoryService.addRepository(nl.gmt.data.test.model.AddressRepository.class, new nl.gmt.data.RepositoryFactory<nl.gmt.data.test.model.AddressRepository>() {
+            @Override
+            public nl.gmt.data.test.model.AddressRepository createRepository() {
+                return new nl.gmt.data.test.model.implementation.AddressRepositoryImpl();
+            }
+        });
+
+        repositoryService.addRepository(nl.gmt.data.test.model.RelationRepository.class, new nl.gmt.data.RepositoryFactory<nl.gmt.data.test.model.RelationRepository>() {
+            @Override
+            public nl.gmt.data.test.model.RelationRepository createRepository() {
+                return new nl.gmt.data.test.model.implementation.RelationRepositoryImpl();
+            }
+        });
+    }
+}